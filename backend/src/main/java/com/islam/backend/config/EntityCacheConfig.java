@@ -0,0 +1,89 @@
+package com.islam.backend.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.islam.backend.domain.entities.AccountEntity;
+import com.islam.backend.domain.entities.JummahEntity;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process Hibernate second-level cache for accounts, Jummahs and Jummah attendee lists,
+ * backed by Caffeine through JCache.
+ *
+ * Every region is created here with its configured size, so Hibernate runs with
+ * {@code missing_cache_strategy: fail} and a typo in a region name fails at startup.
+ * Entries also expire after {@code entity-cache.time-to-live}, bounding how long a write that
+ * bypasses Hibernate entirely could be served stale.
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(
+            @Value("${entity-cache.accounts-max-entries:10000}") long accountsMaxEntries,
+            @Value("${entity-cache.jummahs-max-entries:10000}") long jummahsMaxEntries,
+            @Value("${entity-cache.attendees-max-entries:5000}") long attendeesMaxEntries,
+            @Value("${entity-cache.time-to-live:10m}") Duration timeToLive
+    ) {
+        // A provider of its own, so each application context gets separate caches
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+        Map<String, Long> regions = Map.of(
+                AccountEntity.CACHE_REGION, accountsMaxEntries,
+                AccountEntity.EMAIL_CACHE_REGION, accountsMaxEntries,
+                JummahEntity.CACHE_REGION, jummahsMaxEntries,
+                JummahEntity.ATTENDEES_CACHE_REGION, attendeesMaxEntries);
+        regions.forEach((region, maxEntries) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(timeToLive.toMillis())));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region, configuration);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    /**
+     * Hit ratio of each region as {@code entity.cache.hit.ratio}; hit, miss and put counts per region are
+     * published by Hibernate's own Micrometer binding as {@code hibernate.second.level.cache.*}.
+     */
+    @Bean
+    public MeterBinder entityCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> List.of(AccountEntity.CACHE_REGION, AccountEntity.EMAIL_CACHE_REGION,
+                JummahEntity.CACHE_REGION, JummahEntity.ATTENDEES_CACHE_REGION).forEach(region ->
+                Gauge.builder("entity.cache.hit.ratio", statistics, stats -> hitRatio(stats, region))
+                        .tag("region", region)
+                        .register(registry));
+    }
+
+    private static double hitRatio(Statistics statistics, String region) {
+        CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+        if (regionStatistics == null) {
+            return Double.NaN;
+        }
+        long requests = regionStatistics.getHitCount() + regionStatistics.getMissCount();
+        return requests == 0 ? Double.NaN : (double) regionStatistics.getHitCount() / requests;
+    }
+}
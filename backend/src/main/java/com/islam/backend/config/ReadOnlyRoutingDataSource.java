@@ -0,0 +1,51 @@
+package com.islam.backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Sends the connections of read-only transactions to a replica and everything else to the primary.
+ *
+ * Only read-only transactions declared by application code, whose names start with
+ * {@code transactionPrefix}, use the replica. The read-only transactions Spring Data opens around
+ * single repository calls stay on the primary, so a write path that reads right before it writes
+ * never sees replication lag. The replica is also skipped while {@code replicaUsable} is false.
+ *
+ * The routing decision is made when a connection is taken, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: transaction managers
+ * ask for the connection before they mark the transaction read-only.
+ */
+public class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final String transactionPrefix;
+    private final BooleanSupplier replicaUsable;
+
+    public ReadOnlyRoutingDataSource(DataSource primary, DataSource replica,
+                                     String transactionPrefix, BooleanSupplier replicaUsable) {
+        this.transactionPrefix = transactionPrefix;
+        this.replicaUsable = replicaUsable;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return usesReplica() ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    private boolean usesReplica() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        return name != null && name.startsWith(transactionPrefix) && replicaUsable.getAsBoolean();
+    }
+}
@@ -0,0 +1,80 @@
+package com.islam.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Tracks whether the replica is reachable and close enough to the primary to serve reads.
+ *
+ * Each {@link #check()}, run on a schedule when the monitor is a bean, validates a replica connection and, if a lag query is configured, runs it;
+ * the query must return the replica's delay in seconds. The replica is unusable until the first
+ * successful check, whenever a check fails, and while the lag exceeds the tolerance.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+
+    private volatile boolean usable = false;
+    private volatile double lagSeconds = Double.NaN;
+
+    /**
+     * @param replica The replica pool
+     * @param lagQuery Query returning the replica's lag in seconds, blank to only check that the replica is reachable
+     * @param maxLag The largest lag at which reads are still sent to the replica
+     */
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag) {
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    /**
+     * @return The lag measured by the last check in seconds, NaN if it failed or no lag query is configured
+     */
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${replica-datasource.check-interval:5s}")
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            Boolean valid = replica.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.isValid(VALIDATION_TIMEOUT_SECONDS));
+            if (lagQuery == null || lagQuery.isBlank()) {
+                lagSeconds = Double.NaN;
+                usable = Boolean.TRUE.equals(valid);
+            } else {
+                Double lag = replica.queryForObject(lagQuery, Double.class);
+                lagSeconds = lag != null ? lag : 0;
+                usable = Boolean.TRUE.equals(valid) && lagSeconds <= maxLagSeconds;
+            }
+        } catch (DataAccessException e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (wasUsable) {
+                log.warn("Replica check failed, reading from the primary: {}", e.getMessage());
+            }
+            return;
+        }
+        if (wasUsable != usable) {
+            log.info(usable ? "Replica usable again (lag {} s)" : "Replica lag of {} s exceeds the tolerance, reading from the primary",
+                    lagSeconds);
+        }
+    }
+}
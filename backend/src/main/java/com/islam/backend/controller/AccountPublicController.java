@@ -1,12 +1,17 @@
 package com.islam.backend.controller;
 
+import com.islam.backend.domain.dto.account.request.AccountGeoUpdateRequest;
 import com.islam.backend.domain.dto.account.response.AccountPublicResponse;
 import com.islam.backend.domain.dto.response.ApiResponse;
+import com.islam.backend.security.user.AppUserDetails;
 import com.islam.backend.services.account.AccountPublicService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -30,4 +35,20 @@ public class AccountPublicController {
         AccountPublicResponse account = accountPublicService.findById(id);
         return ResponseEntity.ok(ApiResponse.success(account, "Account retrieved successfully"));
     }
+
+    /**
+     * Set the location of the authenticated account, used to notify it of new Jummahs nearby.
+     *
+     * @param request The new location
+     * @param principal The authenticated user
+     * @return An empty response
+     */
+    @PutMapping("/geolocation")
+    public ResponseEntity<ApiResponse<Void>> updateGeolocation(
+            @RequestBody AccountGeoUpdateRequest request,
+            @AuthenticationPrincipal AppUserDetails principal
+    ) {
+        accountPublicService.updateGeolocation(principal.getAccount().getId(), request);
+        return ResponseEntity.ok(ApiResponse.success(null, "Location updated successfully"));
+    }
 }
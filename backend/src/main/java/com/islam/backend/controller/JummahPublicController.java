@@ -1,20 +1,43 @@
 package com.islam.backend.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.islam.backend.domain.dto.jummah.request.JummahAttendeeBulkRequest;
 import com.islam.backend.domain.dto.jummah.request.JummahCreateRequest;
+import com.islam.backend.domain.dto.jummah.response.JummahArchiveResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahAttendeeBulkResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahChangesResponse;
 import com.islam.backend.domain.dto.jummah.response.JummahCreateResponse;
 import com.islam.backend.domain.dto.jummah.response.JummahDetailResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahLocationPageResponse;
 import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahMapViewResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahNearestResponse;
 import com.islam.backend.domain.dto.response.ApiResponse;
 import com.islam.backend.exceptions.AuthenticationException;
+import com.islam.backend.exceptions.BadRequestException;
+import com.islam.backend.mapper.JummahSnapshotMapper;
 import com.islam.backend.security.user.AppUserDetails;
 import com.islam.backend.services.jummah.JummahPublicService;
+import com.islam.backend.utils.BoundingBox;
+import com.islam.backend.utils.TimeWindow;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.UUID;
 
 @RestController
@@ -22,7 +45,12 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class JummahPublicController {
 
+    private static final int MAX_ZOOM = 22;
+    private static final int MAX_NEAREST = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final JummahPublicService jummahPublicService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Create a new Jummah event.
@@ -43,16 +71,115 @@ public class JummahPublicController {
 
     /**
      * Get Jummah details by ID.
+     * The ETag is the Jummah's change version; a matching If-None-Match is answered with 304.
      *
      * @param jummahId The Jummah ID
+     * @param ifNoneMatch The ETag the client already has, if any
      * @return The Jummah details
      */
     @GetMapping("/detail/{jummahId}")
     public ResponseEntity<ApiResponse<JummahDetailResponse>> findById(
-            @PathVariable UUID jummahId
+            @PathVariable UUID jummahId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
+        OptionalLong cachedVersion = jummahPublicService.findCachedVersion(jummahId);
+        if (cachedVersion.isPresent() && isNotModified(ifNoneMatch, entityTag(cachedVersion.getAsLong()))) {
+            return notModified(entityTag(cachedVersion.getAsLong()));
+        }
         JummahDetailResponse response = jummahPublicService.findById(jummahId);
-        return ResponseEntity.ok(ApiResponse.success(response, "Jummah details retrieved successfully"));
+        // Untracked Jummahs are only validated once loaded
+        if (isNotModified(ifNoneMatch, entityTag(response.getVersion()))) {
+            return notModified(entityTag(response.getVersion()));
+        }
+        return ResponseEntity.ok()
+                .eTag(entityTag(response.getVersion()))
+                .body(ApiResponse.success(response, "Jummah details retrieved successfully"));
+    }
+
+    /**
+     * Get a past Jummah event that was moved to the archive.
+     *
+     * @param jummahId The Jummah ID
+     * @return The archived Jummah
+     */
+    @GetMapping("/archive/{jummahId}")
+    public ResponseEntity<ApiResponse<JummahArchiveResponse>> findArchivedById(@PathVariable UUID jummahId) {
+        JummahArchiveResponse response = jummahPublicService.findArchivedById(jummahId);
+        return ResponseEntity.ok(ApiResponse.success(response, "Archived Jummah retrieved successfully"));
+    }
+
+    /**
+     * Get one page of Jummah locations. Pages are ordered by id and addressed by a cursor,
+     * so reading deep pages costs the same as the first one.
+     *
+     * @param after The nextCursor of the previous page, omitted for the first page
+     * @param size The page size
+     * @return The page and the cursor of the next one
+     */
+    @GetMapping("/locations")
+    public ResponseEntity<ApiResponse<JummahLocationPageResponse>> findLocationPage(
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "500") int size
+    ) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        JummahLocationPageResponse response = jummahPublicService.findJummahLocationPage(after, size);
+        return ResponseEntity.ok(ApiResponse.success(response,
+                "Found " + response.getLocations().size() + " Jummah locations"));
+    }
+
+    /**
+     * Get every Jummah location in one response. The standard response envelope is written
+     * incrementally from a database cursor, so memory use does not depend on the number of events.
+     *
+     * @return The streamed response
+     */
+    @GetMapping(value = "/locations/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamLocations() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartObject();
+                generator.writeBooleanField("success", true);
+                generator.writeArrayFieldStart("data");
+                jummahPublicService.streamAllJummahLocation(location -> {
+                    try {
+                        generator.writeObject(location);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+                generator.writeNumberField("timestamp", Instant.now().toEpochMilli());
+                generator.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Get the Jummah events created, updated or deleted since a client's last sync.
+     * Start with {@code since=0} for a full sync, then pass the returned version each time.
+     *
+     * @param since The version returned by the previous sync
+     * @param limit The maximum number of changes to return
+     * @return The changes and the version to sync from next
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse<JummahChangesResponse>> findChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "1000") int limit
+    ) {
+        if (since < 0) {
+            throw new BadRequestException("since must not be negative");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        JummahChangesResponse response = jummahPublicService.findChangesSince(since, limit);
+        return ResponseEntity.ok(ApiResponse.success(response,
+                "Found " + response.getUpserted().size() + " changed and "
+                        + response.getDeleted().size() + " deleted Jummah events"));
     }
 
     /**
@@ -61,19 +188,165 @@ public class JummahPublicController {
      * @param latitude The latitude coordinate
      * @param longitude The longitude coordinate
      * @param radius The search radius in kilometers
+     * @param from Only events starting at or after this time, defaults to the start of today
+     * @param to Only events starting before this time, defaults to no limit
+     * @param ifNoneMatch The ETag the client already has, if any
      * @return List of Jummah events within the radius
      */
     @GetMapping("/nearby")
     public ResponseEntity<ApiResponse<List<JummahMapResponse>>> findNearby(
-            @RequestParam Double latitude,
-            @RequestParam Double longitude,
-            @RequestParam(defaultValue = "1") Integer radius
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "1") int radius,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        List<JummahMapResponse> response = jummahPublicService.findNearbyByRadius(latitude, longitude, radius);
-        return ResponseEntity.ok(ApiResponse.success(response, 
+        TimeWindow window = timeWindow(from, to);
+        String etag = datasetTag(jummahPublicService.findDatasetVersion());
+        if (isNotModified(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        List<JummahMapResponse> response = jummahPublicService.findNearbyByRadius(latitude, longitude, radius, window);
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(ApiResponse.success(response, 
                 "Found " + response.size() + " Jummah events within " + radius + " km"));
     }
 
+    /**
+     * Find Jummah events near a location, as a binary snapshot (see {@link JummahSnapshotMapper}).
+     * Selected with {@code Accept: application/vnd.salahatlas.jummah-snapshot}.
+     *
+     * @param latitude The latitude coordinate
+     * @param longitude The longitude coordinate
+     * @param radius The search radius in kilometers
+     * @param from Only events starting at or after this time, defaults to the start of today
+     * @param to Only events starting before this time, defaults to no limit
+     * @param ifNoneMatch The ETag the client already has, if any
+     * @return The Jummah events within the radius
+     */
+    @GetMapping(value = "/nearby", produces = JummahSnapshotMapper.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> findNearbySnapshot(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "1") int radius,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        TimeWindow window = timeWindow(from, to);
+        String etag = snapshotTag(jummahPublicService.findDatasetVersion());
+        if (isNotModified(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return snapshot(jummahPublicService.findNearbySnapshot(latitude, longitude, radius, window), etag);
+    }
+
+    /**
+     * Find the Jummah events closest to a location.
+     *
+     * @param latitude The latitude coordinate
+     * @param longitude The longitude coordinate
+     * @param k The number of events to return
+     * @param ifNoneMatch The ETag the client already has, if any
+     * @return Up to k Jummah events with their distance, closest first
+     */
+    @GetMapping("/nearest")
+    public ResponseEntity<ApiResponse<List<JummahNearestResponse>>> findNearest(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        if (k < 1 || k > MAX_NEAREST) {
+            throw new BadRequestException("k must be between 1 and " + MAX_NEAREST);
+        }
+        String etag = datasetTag(jummahPublicService.findDatasetVersion());
+        if (isNotModified(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        List<JummahNearestResponse> response = jummahPublicService.findNearest(latitude, longitude, k);
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success(response,
+                "Found " + response.size() + " closest Jummah events"));
+    }
+
+    /**
+     * Get the Jummah events inside a map viewport.
+     * When zoomed out, events are aggregated into clusters so the response size stays bounded.
+     *
+     * @param bbox The viewport as minLongitude,minLatitude,maxLongitude,maxLatitude
+     * @param zoom The map zoom level
+     * @param from Only events starting at or after this time, defaults to the start of today
+     * @param to Only events starting before this time, defaults to no limit
+     * @param ifNoneMatch The ETag the client already has, if any
+     * @return Clusters and individual Jummah events inside the viewport
+     */
+    @GetMapping("/map")
+    public ResponseEntity<ApiResponse<JummahMapViewResponse>> findInViewport(
+            @RequestParam String bbox,
+            @RequestParam Integer zoom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new BadRequestException("zoom must be between 0 and " + MAX_ZOOM);
+        }
+        BoundingBox viewport = parseBoundingBox(bbox);
+        TimeWindow window = timeWindow(from, to);
+        String etag = datasetTag(jummahPublicService.findDatasetVersion());
+        if (isNotModified(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        JummahMapViewResponse response = jummahPublicService.findInViewport(viewport, zoom, window);
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(ApiResponse.success(response,
+                "Found " + response.getClusters().size() + " clusters and " + response.getPoints().size() + " Jummah events"));
+    }
+
+    /**
+     * Get the Jummah events inside a map viewport, as a binary snapshot (see {@link JummahSnapshotMapper}).
+     * Selected with {@code Accept: application/vnd.salahatlas.jummah-snapshot}.
+     *
+     * @param bbox The viewport as minLongitude,minLatitude,maxLongitude,maxLatitude
+     * @param zoom The map zoom level
+     * @param from Only events starting at or after this time, defaults to the start of today
+     * @param to Only events starting before this time, defaults to no limit
+     * @param ifNoneMatch The ETag the client already has, if any
+     * @return Clusters and individual Jummah events inside the viewport
+     */
+    @GetMapping(value = "/map", produces = JummahSnapshotMapper.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> findInViewportSnapshot(
+            @RequestParam String bbox,
+            @RequestParam Integer zoom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new BadRequestException("zoom must be between 0 and " + MAX_ZOOM);
+        }
+        BoundingBox viewport = parseBoundingBox(bbox);
+        TimeWindow window = timeWindow(from, to);
+        String etag = snapshotTag(jummahPublicService.findDatasetVersion());
+        if (isNotModified(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return snapshot(jummahPublicService.findInViewportSnapshot(viewport, zoom, window), etag);
+    }
+
+    /**
+     * Get the STOMP topics to subscribe to for live changes inside a map viewport.
+     * Each topic receives a {@code JummahLiveEventResponse} whenever a Jummah in its cell is
+     * created, updated, moved or deleted, replacing polling of the location endpoints.
+     *
+     * @param bbox The viewport as minLongitude,minLatitude,maxLongitude,maxLatitude
+     * @return The topic destinations
+     */
+    @GetMapping("/live/topics")
+    public ResponseEntity<ApiResponse<List<String>>> findLiveTopics(@RequestParam String bbox) {
+        List<String> topics = jummahPublicService.findLiveTopics(parseBoundingBox(bbox));
+        return ResponseEntity.ok(ApiResponse.success(topics, "Subscribe to " + topics.size() + " topics"));
+    }
+
     /**
      * Update a Jummah event.
      *
@@ -107,6 +380,29 @@ public class JummahPublicController {
         return ResponseEntity.ok(ApiResponse.success(added, message));
     }
 
+    /**
+     * Add and remove many attendees of a Jummah event at once, e.g. to import a regular congregation.
+     * Only the organizer can change attendees in bulk.
+     *
+     * @param jummahId The Jummah ID
+     * @param request The account IDs to add and to remove
+     * @param principal The authenticated user
+     * @return The outcome for each account ID and the new attendee count
+     */
+    @PostMapping("/{jummahId}/attendees")
+    public ResponseEntity<ApiResponse<JummahAttendeeBulkResponse>> updateAttendees(
+            @PathVariable UUID jummahId,
+            @RequestBody JummahAttendeeBulkRequest request,
+            @AuthenticationPrincipal AppUserDetails principal
+    ) {
+        if (principal == null || !jummahPublicService.isOrganizer(jummahId, principal.getAccount().getId())) {
+            throw new AuthenticationException("Only the organizer can change attendees in bulk");
+        }
+
+        JummahAttendeeBulkResponse response = jummahPublicService.updateAttendees(jummahId, principal.getAccount().getId(), request);
+        return ResponseEntity.ok(ApiResponse.success(response, "Attendees updated successfully"));
+    }
+
     /**
      * Remove an attendee from a Jummah event.
      * Only the organizer can remove attendees.
@@ -122,12 +418,8 @@ public class JummahPublicController {
             @PathVariable UUID accountId,
             @AuthenticationPrincipal AppUserDetails principal
     ) {
-        // Get the Jummah details to check if the current user is the owner
-        JummahDetailResponse jummah = jummahPublicService.findById(jummahId);
-
         // Only the owner can remove attendees
-        if (principal == null || jummah.getOrganizer() == null || 
-            !principal.getAccount().getId().equals(jummah.getOrganizer().getId())) {
+        if (principal == null || !jummahPublicService.isOrganizer(jummahId, principal.getAccount().getId())) {
             throw new AuthenticationException("Only the organizer can remove attendees");
         }
 
@@ -149,4 +441,89 @@ public class JummahPublicController {
         jummahPublicService.deleteById(jummahId);
         return ResponseEntity.ok(ApiResponse.success("Jummah deleted successfully"));
     }
+
+    // ETag of one Jummah, from its change version
+    private String entityTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // ETag of responses built from the whole data set, from the latest change version and the
+    // current day, since the default window of upcoming events moves on at midnight
+    private String datasetTag(long version) {
+        return "\"d" + version + "." + LocalDate.now().toEpochDay() + "\"";
+    }
+
+    // ETag of binary snapshots built from the whole data set
+    private String snapshotTag(long version) {
+        return "\"s" + version + "." + LocalDate.now().toEpochDay() + "\"";
+    }
+
+    // The requested window of start times, upcoming events by default
+    private TimeWindow timeWindow(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from != null ? from : TimeWindow.upcoming().from();
+        if (to != null && !to.isAfter(start)) {
+            throw new BadRequestException("to must be after from");
+        }
+        return new TimeWindow(start, to);
+    }
+
+    // Writes the pre-encoded parts as they are, without copying them into one buffer
+    private ResponseEntity<StreamingResponseBody> snapshot(List<byte[]> parts, String etag) {
+        long length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        StreamingResponseBody body = outputStream -> {
+            for (byte[] part : parts) {
+                outputStream.write(part);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(JummahSnapshotMapper.MEDIA_TYPE))
+                .contentLength(length)
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    private boolean isNotModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    /**
+     * Parse a "minLongitude,minLatitude,maxLongitude,maxLatitude" viewport.
+     * A minimum longitude greater than the maximum means the viewport crosses the antimeridian.
+     */
+    private BoundingBox parseBoundingBox(String bbox) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            throw new BadRequestException("bbox must be minLongitude,minLatitude,maxLongitude,maxLatitude");
+        }
+        try {
+            double minLongitude = Double.parseDouble(parts[0].trim());
+            double minLatitude = Double.parseDouble(parts[1].trim());
+            double maxLongitude = Double.parseDouble(parts[2].trim());
+            double maxLatitude = Double.parseDouble(parts[3].trim());
+            if (minLatitude < -90 || maxLatitude > 90 || minLatitude > maxLatitude
+                    || minLongitude < -180 || minLongitude > 180 || maxLongitude < -180 || maxLongitude > 180) {
+                throw new BadRequestException("bbox is outside the valid latitude/longitude range");
+            }
+            return new BoundingBox(minLatitude, minLongitude, maxLatitude, maxLongitude);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("bbox must contain four numbers", e);
+        }
+    }
 }
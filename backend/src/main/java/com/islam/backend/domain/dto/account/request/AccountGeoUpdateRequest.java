@@ -1,4 +1,15 @@
 package com.islam.backend.domain.dto.account.request;
 
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
 public class AccountGeoUpdateRequest {
+    private double latitude;
+    private double longitude;
 }
@@ -0,0 +1,20 @@
+package com.islam.backend.domain.dto.account.response;
+
+import com.islam.backend.enums.Gender;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountLocationResponse {
+    private UUID id;
+    private double latitude;
+    private double longitude;
+    private Gender gender;
+}
@@ -0,0 +1,18 @@
+package com.islam.backend.domain.dto.jummah.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JummahAttendeeBulkRequest {
+    private List<UUID> add;
+    private List<UUID> remove;
+}
@@ -0,0 +1,24 @@
+package com.islam.backend.domain.dto.jummah.response;
+
+import com.islam.backend.enums.AttendeeChangeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JummahAttendeeBulkResponse {
+
+    /**
+     * Outcome for each requested account ID, in request order.
+     */
+    private Map<UUID, AttendeeChangeStatus> results;
+
+    private int attendeeCount;
+}
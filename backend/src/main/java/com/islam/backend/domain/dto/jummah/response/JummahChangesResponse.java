@@ -0,0 +1,36 @@
+package com.islam.backend.domain.dto.jummah.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JummahChangesResponse {
+
+    /**
+     * Pass as {@code since} on the next sync.
+     */
+    private long version;
+
+    /**
+     * Jummahs created or updated since the requested version, in their current state.
+     */
+    private List<JummahMapResponse> upserted;
+
+    /**
+     * IDs of Jummahs deleted since the requested version.
+     */
+    private List<UUID> deleted;
+
+    /**
+     * True if more changes are waiting; sync again from {@link #version} right away.
+     */
+    private boolean hasMore;
+}
@@ -0,0 +1,16 @@
+package com.islam.backend.domain.dto.jummah.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JummahClusterResponse {
+    private double latitude;
+    private double longitude;
+    private long count;
+}
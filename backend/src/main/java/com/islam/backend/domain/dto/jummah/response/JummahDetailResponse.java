@@ -26,4 +26,10 @@ public class JummahDetailResponse {
     private double longitude;
     private AccountPublicResponse organizer;
     private List<AccountPublicResponse> attendees;
+    private int attendeeCount;
+
+    /**
+     * Change version of the Jummah this response was built from.
+     */
+    private long version;
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.islam.backend.domain.dto.jummah.response;
+
+import com.islam.backend.enums.JummahEventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JummahLiveEventResponse {
+    private JummahEventType type;
+    private UUID id;
+
+    /**
+     * Change version of the event, comparable with the versions of delta sync and the dataset ETags.
+     */
+    private long version;
+
+    /**
+     * The current location for {@code UPSERTED}, null for {@code DELETED}.
+     * May lie outside the subscribed cell when the Jummah has just moved away from it.
+     */
+    private JummahMapResponse location;
+}
@@ -0,0 +1,22 @@
+package com.islam.backend.domain.dto.jummah.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JummahLocationPageResponse {
+    private List<JummahMapResponse> locations;
+
+    /**
+     * Pass as {@code after} to fetch the next page; null on the last page.
+     */
+    private UUID nextCursor;
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.UUID;
 
 @Data
@@ -16,4 +18,7 @@ public class JummahMapResponse {
     private double latitude;
     private double longitude;
     private boolean isVerifiedOrganizer;
+    private LocalDate date;
+    private LocalTime time;
+    private int attendeeCount;
 }
@@ -0,0 +1,18 @@
+package com.islam.backend.domain.dto.jummah.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JummahMapViewResponse {
+    private int zoom;
+    private List<JummahClusterResponse> clusters;
+    private List<JummahMapResponse> points;
+}
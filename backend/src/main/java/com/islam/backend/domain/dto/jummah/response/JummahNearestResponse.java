@@ -0,0 +1,20 @@
+package com.islam.backend.domain.dto.jummah.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JummahNearestResponse {
+    private UUID id;
+    private double latitude;
+    private double longitude;
+    private boolean isVerifiedOrganizer;
+    private double distanceKm;
+}
@@ -3,11 +3,17 @@ package com.islam.backend.domain.entities;
 
 import com.islam.backend.domain.entities.value.Geolocation;
 import com.islam.backend.enums.Gender;
+import com.islam.backend.utils.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.UuidGenerator;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -22,12 +28,21 @@ import java.util.UUID;
 @Entity
 @Table(name = "accounts")
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = AccountEntity.CACHE_REGION)
+@NaturalIdCache(region = AccountEntity.EMAIL_CACHE_REGION)
 public class AccountEntity {
 
+    public static final String CACHE_REGION = "accounts";
+
+    // Resolves emails to account ids, so authenticating a known account does not query the database
+    public static final String EMAIL_CACHE_REGION = "account-emails";
+
     @Id
-    @GeneratedValue
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     private UUID id;
 
+    @NaturalId
     @Column(unique = true)
     private String email;
 
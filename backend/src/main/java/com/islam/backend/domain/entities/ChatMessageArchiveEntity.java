@@ -0,0 +1,35 @@
+package com.islam.backend.domain.entities;
+
+import com.islam.backend.enums.MessageType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A chat message of an archived Jummah, keeping the id it had in the live table.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "chat_messages_archive", indexes = {
+        @Index(name = "idx_chat_messages_archive_jummah_id", columnList = "jummah_id")
+})
+public class ChatMessageArchiveEntity {
+
+    @Id
+    private Long id;
+    private String sender;
+    private String message;
+    private MessageType type;
+    private LocalDateTime timestamp;
+
+    @Column(name = "jummah_id")
+    private UUID jummahId;
+}
@@ -0,0 +1,67 @@
+package com.islam.backend.domain.entities;
+
+import com.islam.backend.domain.entities.value.Geolocation;
+import com.islam.backend.enums.Gender;
+import com.islam.backend.enums.PrayerTime;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A past Jummah moved out of the jummahs table by {@code JummahArchiver}. Read-only history:
+ * accounts are referenced by id only, so archived rows never hold locks on live tables.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "jummahs_archive", indexes = {
+        @Index(name = "idx_jummahs_archive_organizer_id", columnList = "organizer_id")
+})
+public class JummahArchiveEntity {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private LocalTime time;
+
+    @Column(nullable = false)
+    private long changeVersion;
+
+    @Embedded
+    private Geolocation geolocation;
+
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+
+    @Enumerated(EnumType.STRING)
+    private PrayerTime prayerTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Gender genderTarget;
+
+    @Column(name = "organizer_id")
+    private UUID organizerId;
+
+    @ElementCollection
+    @CollectionTable(name = "jummahs_attendees_archive", joinColumns = @JoinColumn(name = "jummah_id"))
+    @Column(name = "account_id")
+    private List<UUID> attendeeIds;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
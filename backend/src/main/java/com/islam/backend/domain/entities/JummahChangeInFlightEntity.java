@@ -0,0 +1,40 @@
+package com.islam.backend.domain.entities;
+
+import com.islam.backend.utils.UuidV7Generator;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Registration of a Jummah change whose transaction has not finished yet.
+ *
+ * It is committed before the change takes its version, and removed in the change's own
+ * transaction, so delta sync readers can tell which versions may still appear.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "jummah_changes_in_flight")
+public class JummahChangeInFlightEntity {
+
+    @Id
+    @UuidGenerator(algorithm = UuidV7Generator.class)
+    private UUID id;
+
+    /**
+     * A version taken before the change's own, so every version the change takes is higher.
+     */
+    @Column(nullable = false)
+    private long floorVersion;
+
+    @Column(nullable = false)
+    private LocalDateTime registeredAt;
+}
@@ -4,12 +4,15 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.islam.backend.domain.entities.value.Geolocation;
 import com.islam.backend.enums.Gender;
 import com.islam.backend.enums.PrayerTime;
+import com.islam.backend.utils.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.data.annotation.CreatedDate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UuidGenerator;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDate;
@@ -22,10 +25,28 @@ import java.util.UUID;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "jummahs")
+@Table(name = "jummahs", indexes = {
+        @Index(name = "idx_jummahs_geohash", columnList = "geohash"),
+        @Index(name = "idx_jummahs_change_version", columnList = "changeVersion"),
+        @Index(name = "idx_jummahs_date_time", columnList = "date, time")
+})
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = JummahEntity.CACHE_REGION)
 public class JummahEntity {
 
+    public static final String CACHE_REGION = "jummahs";
+
+    public static final String ATTENDEES_CACHE_REGION = "jummah-attendees";
+
+    public static final String ATTENDEES_ROLE = JummahEntity.class.getName() + ".attendees";
+
+    /**
+     * Query space of the native join and leave statements. It matches no cache region, so Hibernate
+     * does not clear whole regions after them; {@code JummahChangeLog.update} evicts the one Jummah instead.
+     */
+    public static final String ATTENDANCE_QUERY_SPACE = "jummah_attendance";
+
     @PrePersist
     public void prePersist() {
         if (date == null) {
@@ -34,16 +55,38 @@ public class JummahEntity {
     }
 
     @Id
-    @GeneratedValue
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     private UUID id;
 
-    @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDate date;
 
     @Column(nullable = false)
     private LocalTime time;
 
+    /**
+     * Position of the latest create or update of this Jummah in the global change order,
+     * used by delta sync clients. Assigned by {@code JummahChangeLog}.
+     */
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private long changeVersion;
+
+    /**
+     * Optimistic lock of the entity's own fields; saving a copy read before a concurrent
+     * save fails instead of overwriting it.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private long version;
+
+    /**
+     * Number of rows in the attendee join table, kept in step by the join and leave statements
+     * so counts can be read without loading the attendees. Never written by entity updates,
+     * so saving the Jummah cannot undo a concurrent join.
+     */
+    @Column(nullable = false, updatable = false, columnDefinition = "INTEGER DEFAULT 0")
+    private int attendeeCount;
+
     @Embedded
     private Geolocation geolocation;
 
@@ -62,9 +105,12 @@ public class JummahEntity {
     AccountEntity organizer;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = JummahEntity.ATTENDEES_CACHE_REGION)
     @JoinTable(name = "jummahs_attendees",
             joinColumns = @JoinColumn(name = "jummah_id"),
-            inverseJoinColumns = @JoinColumn(name = "account_id"))
+            inverseJoinColumns = @JoinColumn(name = "account_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_jummahs_attendees_jummah_account",
+                    columnNames = {"jummah_id", "account_id"}))
     List<AccountEntity> attendees;
 
     @OneToMany(mappedBy = "jummah", cascade = CascadeType.ALL, orphanRemoval = true)
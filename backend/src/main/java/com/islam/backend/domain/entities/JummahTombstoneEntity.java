@@ -0,0 +1,33 @@
+package com.islam.backend.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Marker left behind by a deleted Jummah, so delta sync clients learn about the deletion.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "jummah_tombstones", indexes = {
+        @Index(name = "idx_jummah_tombstones_change_version", columnList = "changeVersion")
+})
+public class JummahTombstoneEntity {
+
+    @Id
+    private UUID jummahId;
+
+    @Column(nullable = false)
+    private long changeVersion;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -1,5 +1,7 @@
 package com.islam.backend.domain.entities.value;
 
+import com.islam.backend.utils.GeoHash;
+import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,4 +16,27 @@ import lombok.NoArgsConstructor;
 public class Geolocation {
     private double latitude;
     private double longitude;
+
+    /**
+     * Geohash of the coordinates, kept in sync by the constructor and setters.
+     * Used as an indexed cell key for prefix range lookups.
+     */
+    @Column(length = GeoHash.MAX_PRECISION)
+    private String geohash;
+
+    public Geolocation(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.geohash = GeoHash.encode(latitude, longitude, GeoHash.MAX_PRECISION);
+    }
+
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+        this.geohash = GeoHash.encode(latitude, longitude, GeoHash.MAX_PRECISION);
+    }
+
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+        this.geohash = GeoHash.encode(latitude, longitude, GeoHash.MAX_PRECISION);
+    }
 }
@@ -0,0 +1,5 @@
+package com.islam.backend.enums;
+
+public enum AttendeeChangeStatus {
+    ADDED, REMOVED, ALREADY_ATTENDING, NOT_ATTENDING, ORGANIZER, ACCOUNT_NOT_FOUND
+}
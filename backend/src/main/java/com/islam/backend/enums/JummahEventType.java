@@ -0,0 +1,5 @@
+package com.islam.backend.enums;
+
+public enum JummahEventType {
+    UPSERTED, DELETED
+}
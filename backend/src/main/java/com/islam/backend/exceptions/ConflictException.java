@@ -0,0 +1,31 @@
+package com.islam.backend.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a request conflicts with concurrent changes to the same resource.
+ * This exception will result in an HTTP 409 response.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends ApplicationException {
+
+    /**
+     * Constructs a new ConflictException with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public ConflictException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new ConflictException with the specified detail message and cause.
+     *
+     * @param message the detail message
+     * @param cause the cause of the exception
+     */
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
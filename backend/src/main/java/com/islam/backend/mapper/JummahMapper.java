@@ -1,9 +1,12 @@
 package com.islam.backend.mapper;
 
 import com.islam.backend.domain.dto.jummah.request.JummahCreateRequest;
+import com.islam.backend.domain.dto.jummah.response.JummahArchiveResponse;
 import com.islam.backend.domain.dto.jummah.response.JummahCreateResponse;
 import com.islam.backend.domain.dto.jummah.response.JummahDetailResponse;
 import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahNearestResponse;
+import com.islam.backend.domain.entities.JummahArchiveEntity;
 import com.islam.backend.domain.entities.JummahEntity;
 import com.islam.backend.security.user.AppUserDetails;
 
@@ -12,5 +15,7 @@ public interface JummahMapper {
     JummahEntity toEntity(JummahCreateRequest request, AppUserDetails principal);
     JummahCreateResponse toCreateResponse(JummahEntity entity);
     JummahMapResponse toMapResponse(JummahEntity entity);
+    JummahNearestResponse toNearestResponse(JummahMapResponse location, double distanceKm);
     JummahDetailResponse toDetailResponse(JummahEntity entity);
+    JummahArchiveResponse toArchiveResponse(JummahArchiveEntity entity);
 }
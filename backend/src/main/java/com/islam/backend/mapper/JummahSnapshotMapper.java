@@ -0,0 +1,23 @@
+package com.islam.backend.mapper;
+
+import com.islam.backend.domain.dto.jummah.response.JummahClusterResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+
+import java.util.List;
+
+/**
+ * Encodes map locations in the compact binary snapshot format served as {@link #MEDIA_TYPE}.
+ */
+public interface JummahSnapshotMapper {
+
+    String MEDIA_TYPE = "application/vnd.salahatlas.jummah-snapshot";
+
+    /**
+     * Zoom written in the header of responses that are not tied to a zoom level.
+     */
+    int NO_ZOOM = 0xFF;
+
+    byte[] toHeader(int zoom);
+    byte[] toPointBlock(List<JummahMapResponse> points);
+    byte[] toClusterBlock(List<JummahClusterResponse> clusters);
+}
@@ -1,9 +1,12 @@
 package com.islam.backend.mapper.impl;
 
 import com.islam.backend.domain.dto.jummah.request.JummahCreateRequest;
+import com.islam.backend.domain.dto.jummah.response.JummahArchiveResponse;
 import com.islam.backend.domain.dto.jummah.response.JummahCreateResponse;
 import com.islam.backend.domain.dto.jummah.response.JummahDetailResponse;
 import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahNearestResponse;
+import com.islam.backend.domain.entities.JummahArchiveEntity;
 import com.islam.backend.domain.entities.JummahEntity;
 import com.islam.backend.domain.entities.value.Geolocation;
 import com.islam.backend.mapper.AccountMapper;
@@ -55,6 +58,20 @@ public class JummahMapperImpl implements JummahMapper {
                 .latitude(entity.getGeolocation().getLatitude())
                 .longitude(entity.getGeolocation().getLongitude())
                 .isVerifiedOrganizer(entity.getOrganizer() != null && entity.getOrganizer().isVerified())
+                .date(entity.getDate())
+                .time(entity.getTime())
+                .attendeeCount(entity.getAttendeeCount())
+                .build();
+    }
+
+    @Override
+    public JummahNearestResponse toNearestResponse(JummahMapResponse location, double distanceKm) {
+        return JummahNearestResponse.builder()
+                .id(location.getId())
+                .latitude(location.getLatitude())
+                .longitude(location.getLongitude())
+                .isVerifiedOrganizer(location.isVerifiedOrganizer())
+                .distanceKm(distanceKm)
                 .build();
     }
 
@@ -76,6 +93,24 @@ public class JummahMapperImpl implements JummahMapper {
                                 .toList()
                                 : List.of()
                 )
+                .attendeeCount(entity.getAttendeeCount())
+                .version(entity.getChangeVersion())
+                .build();
+    }
+
+    @Override
+    public JummahArchiveResponse toArchiveResponse(JummahArchiveEntity entity) {
+        return JummahArchiveResponse.builder()
+                .id(entity.getId())
+                .date(entity.getDate())
+                .time(entity.getTime())
+                .prayerTime(entity.getPrayerTime())
+                .notes(entity.getNotes())
+                .latitude(entity.getGeolocation().getLatitude())
+                .longitude(entity.getGeolocation().getLongitude())
+                .organizerId(entity.getOrganizerId())
+                .attendeeIds(entity.getAttendeeIds() != null ? List.copyOf(entity.getAttendeeIds()) : List.of())
+                .archivedAt(entity.getArchivedAt())
                 .build();
     }
 
@@ -0,0 +1,129 @@
+package com.islam.backend.mapper.impl;
+
+import com.islam.backend.domain.dto.jummah.response.JummahClusterResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.mapper.JummahSnapshotMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary snapshot format, all integers big-endian:
+ *
+ * <pre>
+ * snapshot := 'J' 'M' 'S' formatVersion(1) zoom(1, 0xFF if none) block*
+ * block    := type(1) count(varint) coordinates payload
+ * points   := type 1; payload is count raw 16-byte UUIDs, then a bitmap of ceil(count / 8) bytes
+ *             where bit i (least significant first) is set when point i has a verified organizer
+ * clusters := type 2; payload is count varints holding the number of events in each cluster
+ * </pre>
+ *
+ * Coordinates are fixed-point integers of 1e-6 degrees (about 11 cm). Within a block the entries
+ * are sorted by latitude, the first latitude/longitude pair is written as is and every following
+ * pair as the difference to the previous one, all as zigzag varints, so nearby points cost a few
+ * bytes instead of two 8-byte doubles. A client reads blocks until the end of the body.
+ */
+@Component
+public class JummahSnapshotMapperImpl implements JummahSnapshotMapper {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte POINTS_BLOCK = 1;
+    private static final byte CLUSTERS_BLOCK = 2;
+    private static final double FIXED_POINT_SCALE = 1e6;
+
+    @Override
+    public byte[] toHeader(int zoom) {
+        return new byte[]{'J', 'M', 'S', FORMAT_VERSION, (byte) zoom};
+    }
+
+    @Override
+    public byte[] toPointBlock(List<JummahMapResponse> points) {
+        JummahMapResponse[] sorted = points.toArray(JummahMapResponse[]::new);
+        Arrays.sort(sorted, Comparator.comparingDouble(JummahMapResponse::getLatitude)
+                .thenComparingDouble(JummahMapResponse::getLongitude));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + sorted.length * 24);
+        out.write(POINTS_BLOCK);
+        writeVarint(out, sorted.length);
+        int previousLatitude = 0;
+        int previousLongitude = 0;
+        for (JummahMapResponse point : sorted) {
+            int latitude = toFixedPoint(point.getLatitude());
+            int longitude = toFixedPoint(point.getLongitude());
+            writeVarint(out, zigzag(latitude - previousLatitude));
+            writeVarint(out, zigzag(longitude - previousLongitude));
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+        }
+
+        byte[] id = new byte[16];
+        for (JummahMapResponse point : sorted) {
+            UUID uuid = point.getId();
+            writeLong(id, 0, uuid.getMostSignificantBits());
+            writeLong(id, 8, uuid.getLeastSignificantBits());
+            out.write(id, 0, id.length);
+        }
+
+        byte[] flags = new byte[(sorted.length + 7) / 8];
+        for (int i = 0; i < sorted.length; i++) {
+            if (sorted[i].isVerifiedOrganizer()) {
+                flags[i >>> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        out.write(flags, 0, flags.length);
+        return out.toByteArray();
+    }
+
+    @Override
+    public byte[] toClusterBlock(List<JummahClusterResponse> clusters) {
+        JummahClusterResponse[] sorted = clusters.toArray(JummahClusterResponse[]::new);
+        Arrays.sort(sorted, Comparator.comparingDouble(JummahClusterResponse::getLatitude)
+                .thenComparingDouble(JummahClusterResponse::getLongitude));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + sorted.length * 8);
+        out.write(CLUSTERS_BLOCK);
+        writeVarint(out, sorted.length);
+        int previousLatitude = 0;
+        int previousLongitude = 0;
+        for (JummahClusterResponse cluster : sorted) {
+            int latitude = toFixedPoint(cluster.getLatitude());
+            int longitude = toFixedPoint(cluster.getLongitude());
+            writeVarint(out, zigzag(latitude - previousLatitude));
+            writeVarint(out, zigzag(longitude - previousLongitude));
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+        }
+        for (JummahClusterResponse cluster : sorted) {
+            writeVarint(out, cluster.getCount());
+        }
+        return out.toByteArray();
+    }
+
+    private static int toFixedPoint(double degrees) {
+        return (int) Math.round(degrees * FIXED_POINT_SCALE);
+    }
+
+    // Maps small negative and positive numbers to small unsigned numbers
+    private static long zigzag(int value) {
+        return Integer.toUnsignedLong((value << 1) ^ (value >> 31));
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeLong(byte[] target, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            target[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
@@ -1,16 +1,52 @@
 package com.islam.backend.repositories;
 
+import com.islam.backend.domain.dto.account.response.AccountLocationResponse;
 import com.islam.backend.domain.entities.AccountEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface AccountRepository extends JpaRepository<AccountEntity, UUID> {
+public interface AccountRepository extends JpaRepository<AccountEntity, UUID>, AccountRepositoryCustom {
     Optional<AccountEntity> findByEmail(String email);
     Optional<AccountEntity> findByVerificationToken(String token);
     Optional<AccountEntity> findByVerificationCode(String code);
     Optional<AccountEntity> findByEmailAndVerificationCode(String email, String code);
+
+    /**
+     * The IDs among {@code ids} that belong to an account, in one IN query.
+     */
+    @Query("SELECT a.id FROM AccountEntity a WHERE a.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * First page of account locations, ordered by id for keyset pagination.
+     */
+    @Query("""
+            SELECT new com.islam.backend.domain.dto.account.response.AccountLocationResponse(
+                a.id, a.geolocation.latitude, a.geolocation.longitude, a.gender)
+            FROM AccountEntity a
+            WHERE a.geolocation IS NOT NULL
+            ORDER BY a.id
+            """)
+    List<AccountLocationResponse> findLocationPage(Pageable pageable);
+
+    /**
+     * Next page of account locations, seeking past the last id of the previous page.
+     */
+    @Query("""
+            SELECT new com.islam.backend.domain.dto.account.response.AccountLocationResponse(
+                a.id, a.geolocation.latitude, a.geolocation.longitude, a.gender)
+            FROM AccountEntity a
+            WHERE a.geolocation IS NOT NULL AND a.id > :after
+            ORDER BY a.id
+            """)
+    List<AccountLocationResponse> findLocationPageAfter(@Param("after") UUID after, Pageable pageable);
 }
@@ -0,0 +1,14 @@
+package com.islam.backend.repositories;
+
+import com.islam.backend.domain.entities.AccountEntity;
+
+import java.util.Optional;
+
+public interface AccountRepositoryCustom {
+
+    /**
+     * Load an account by its email through Hibernate's natural-id lookup, so a repeated lookup
+     * is answered from the second-level cache instead of a query.
+     */
+    Optional<AccountEntity> findByNaturalEmail(String email);
+}
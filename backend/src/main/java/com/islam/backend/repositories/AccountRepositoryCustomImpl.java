@@ -0,0 +1,23 @@
+package com.islam.backend.repositories;
+
+import com.islam.backend.domain.entities.AccountEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+class AccountRepositoryCustomImpl implements AccountRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional // Not read-only: logins must not see a lagging replica
+    public Optional<AccountEntity> findByNaturalEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(AccountEntity.class)
+                .loadOptional(email);
+    }
+}
@@ -0,0 +1,46 @@
+package com.islam.backend.repositories;
+
+import com.islam.backend.domain.entities.JummahArchiveEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface JummahArchiveRepository extends JpaRepository<JummahArchiveEntity, UUID> {
+
+    @Query("""
+            SELECT j FROM JummahArchiveEntity j LEFT JOIN FETCH j.attendeeIds
+            WHERE j.id = :id
+            """)
+    Optional<JummahArchiveEntity> findWithAttendeesById(@Param("id") UUID id);
+
+    /**
+     * Copy Jummah rows into the archive in one statement, without loading them.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO jummahs_archive (id, date, time, change_version, latitude, longitude, geohash,
+                                         notes, prayer_time, gender_target, organizer_id, archived_at)
+            SELECT id, date, time, change_version, latitude, longitude, geohash,
+                   notes, prayer_time, gender_target, organizer_id, :archivedAt
+            FROM jummahs WHERE id IN :ids
+            """, nativeQuery = true)
+    int copyJummahs(@Param("ids") Collection<UUID> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    /**
+     * Copy the attendee rows of Jummahs into the archive in one statement.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO jummahs_attendees_archive (jummah_id, account_id)
+            SELECT jummah_id, account_id FROM jummahs_attendees WHERE jummah_id IN :ids
+            """, nativeQuery = true)
+    int copyAttendees(@Param("ids") Collection<UUID> ids);
+}
@@ -0,0 +1,56 @@
+package com.islam.backend.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes many rows of the attendee join table as single JDBC batches.
+ * Each statement reports its own update count, so callers get a per-account outcome.
+ * Must run inside a transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class JummahAttendeeBatchRepository {
+
+    // Same guards as JummahRepository.insertAttendee: skips the organizer and existing attendees
+    private static final String INSERT_SQL = """
+            INSERT INTO jummahs_attendees (jummah_id, account_id)
+            SELECT j.id, ? FROM jummahs j
+            WHERE j.id = ?
+              AND (j.organizer_id IS NULL OR j.organizer_id <> ?)
+              AND NOT EXISTS (
+                  SELECT 1 FROM jummahs_attendees a WHERE a.jummah_id = ? AND a.account_id = ?)
+            """;
+
+    private static final String DELETE_SQL = "DELETE FROM jummahs_attendees WHERE jummah_id = ? AND account_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return For each account, in order, 1 if it was added and 0 if it was skipped
+     */
+    public int[] insertAll(UUID jummahId, List<UUID> accountIds) {
+        if (accountIds.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(INSERT_SQL, accountIds.stream()
+                .map(accountId -> new Object[]{accountId, jummahId, accountId, jummahId, accountId})
+                .toList());
+    }
+
+    /**
+     * @return For each account, in order, 1 if it was removed and 0 if it did not attend
+     */
+    public int[] deleteAll(UUID jummahId, List<UUID> accountIds) {
+        if (accountIds.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(DELETE_SQL, accountIds.stream()
+                .map(accountId -> new Object[]{jummahId, accountId})
+                .toList());
+    }
+}
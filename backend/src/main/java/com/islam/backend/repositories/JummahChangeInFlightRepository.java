@@ -0,0 +1,36 @@
+package com.islam.backend.repositories;
+
+import com.islam.backend.domain.entities.JummahChangeInFlightEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface JummahChangeInFlightRepository extends JpaRepository<JummahChangeInFlightEntity, UUID> {
+
+    /**
+     * The lowest floor among changes registered after a point in time, empty if none is in flight.
+     */
+    @Query("SELECT MIN(c.floorVersion) FROM JummahChangeInFlightEntity c WHERE c.registeredAt > :after")
+    Optional<Long> findLowestFloorRegisteredAfter(@Param("after") LocalDateTime after);
+
+    /**
+     * Remove a registration, joining the change's transaction when there is one.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM JummahChangeInFlightEntity c WHERE c.id = :id")
+    int deleteRegistration(@Param("id") UUID id);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM JummahChangeInFlightEntity c WHERE c.registeredAt <= :before")
+    int deleteRegisteredBefore(@Param("before") LocalDateTime before);
+}
@@ -1,11 +1,276 @@
 package com.islam.backend.repositories;
 
+import com.islam.backend.domain.dto.jummah.response.JummahClusterResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
 import com.islam.backend.domain.entities.JummahEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface JummahRepository extends JpaRepository<JummahEntity, UUID> {
+
+    /**
+     * Find a Jummah with its organizer and attendees, fetched in the same query.
+     */
+    @EntityGraph(attributePaths = {"organizer", "attendees"})
+    @Query("SELECT j FROM JummahEntity j WHERE j.id = :id")
+    Optional<JummahEntity> findDetailById(@Param("id") UUID id);
+
+    /**
+     * Find the Jummahs in one geohash cell that also fall inside a latitude/longitude box
+     * and start inside a time window.
+     * The geohash range is served by the geohash index; the box trims the cell to the search area.
+     * Selected as map responses in one query joined to the organizer, so no entity is loaded.
+     *
+     * @param fromGeohash The cell prefix, inclusive
+     * @param toGeohash The upper bound of the cell, exclusive (see {@code GeoHash.upperBound})
+     * @param fromDate With fromTime, the inclusive start of the window
+     * @param toDate With toTime, the exclusive end of the window
+     */
+    @Query("""
+            SELECT new com.islam.backend.domain.dto.jummah.response.JummahMapResponse(
+                j.id, j.geolocation.latitude, j.geolocation.longitude, COALESCE(o.verified, false), j.date, j.time, j.attendeeCount)
+            FROM JummahEntity j LEFT JOIN j.organizer o
+            WHERE j.geolocation.geohash >= :fromGeohash AND j.geolocation.geohash < :toGeohash
+              AND j.geolocation.latitude BETWEEN :minLatitude AND :maxLatitude
+              AND j.geolocation.longitude BETWEEN :minLongitude AND :maxLongitude
+              AND (j.date > :fromDate OR (j.date = :fromDate AND j.time >= :fromTime))
+              AND (j.date < :toDate OR (j.date = :toDate AND j.time < :toTime))
+            """)
+    List<JummahMapResponse> findWithinGeohashRange(
+            @Param("fromGeohash") String fromGeohash,
+            @Param("toGeohash") String toGeohash,
+            @Param("minLatitude") double minLatitude,
+            @Param("minLongitude") double minLongitude,
+            @Param("maxLatitude") double maxLatitude,
+            @Param("maxLongitude") double maxLongitude,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("fromTime") LocalTime fromTime,
+            @Param("toDate") LocalDate toDate,
+            @Param("toTime") LocalTime toTime
+    );
+
+    /**
+     * Aggregate the Jummahs in one geohash cell, latitude/longitude box and time window into clusters,
+     * one per geohash prefix of the given length.
+     *
+     * @param precision The geohash prefix length to group by
+     */
+    @Query("""
+            SELECT new com.islam.backend.domain.dto.jummah.response.JummahClusterResponse(
+                AVG(j.geolocation.latitude), AVG(j.geolocation.longitude), COUNT(j))
+            FROM JummahEntity j
+            WHERE j.geolocation.geohash >= :fromGeohash AND j.geolocation.geohash < :toGeohash
+              AND j.geolocation.latitude BETWEEN :minLatitude AND :maxLatitude
+              AND j.geolocation.longitude BETWEEN :minLongitude AND :maxLongitude
+              AND (j.date > :fromDate OR (j.date = :fromDate AND j.time >= :fromTime))
+              AND (j.date < :toDate OR (j.date = :toDate AND j.time < :toTime))
+            GROUP BY SUBSTRING(j.geolocation.geohash, 1, :precision)
+            """)
+    List<JummahClusterResponse> clusterWithinGeohashRange(
+            @Param("fromGeohash") String fromGeohash,
+            @Param("toGeohash") String toGeohash,
+            @Param("minLatitude") double minLatitude,
+            @Param("minLongitude") double minLongitude,
+            @Param("maxLatitude") double maxLatitude,
+            @Param("maxLongitude") double maxLongitude,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("fromTime") LocalTime fromTime,
+            @Param("toDate") LocalDate toDate,
+            @Param("toTime") LocalTime toTime,
+            @Param("precision") int precision
+    );
+
+    /**
+     * Locations of the Jummahs taking place on or after a day, served by the date/time index.
+     */
+    @Query("""
+            SELECT new com.islam.backend.domain.dto.jummah.response.JummahMapResponse(
+                j.id, j.geolocation.latitude, j.geolocation.longitude, COALESCE(o.verified, false), j.date, j.time, j.attendeeCount)
+            FROM JummahEntity j LEFT JOIN j.organizer o
+            WHERE j.date >= :fromDate AND j.geolocation IS NOT NULL
+            """)
+    List<JummahMapResponse> findLocationsFrom(@Param("fromDate") LocalDate fromDate);
+
+    /**
+     * First page of Jummah locations, ordered by id for keyset pagination.
+     */
+    @Query("""
+            SELECT new com.islam.backend.domain.dto.jummah.response.JummahMapResponse(
+                j.id, j.geolocation.latitude, j.geolocation.longitude, COALESCE(o.verified, false), j.date, j.time, j.attendeeCount)
+            FROM JummahEntity j LEFT JOIN j.organizer o
+            WHERE j.geolocation IS NOT NULL
+            ORDER BY j.id
+            """)
+    List<JummahMapResponse> findLocationPage(Pageable pageable);
+
+    /**
+     * Next page of Jummah locations: seeks past the last id of the previous page
+     * through the primary key index instead of skipping an offset.
+     *
+     * @param after The last id of the previous page
+     */
+    @Query("""
+            SELECT new com.islam.backend.domain.dto.jummah.response.JummahMapResponse(
+                j.id, j.geolocation.latitude, j.geolocation.longitude, COALESCE(o.verified, false), j.date, j.time, j.attendeeCount)
+            FROM JummahEntity j LEFT JOIN j.organizer o
+            WHERE j.geolocation IS NOT NULL AND j.id > :after
+            ORDER BY j.id
+            """)
+    List<JummahMapResponse> findLocationPageAfter(@Param("after") UUID after, Pageable pageable);
+
+    /**
+     * Every Jummah location as a database cursor, fetched in chunks.
+     * Rows are read as map responses, so nothing accumulates in the persistence context.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @Query("""
+            SELECT new com.islam.backend.domain.dto.jummah.response.JummahMapResponse(
+                j.id, j.geolocation.latitude, j.geolocation.longitude, COALESCE(o.verified, false), j.date, j.time, j.attendeeCount)
+            FROM JummahEntity j LEFT JOIN j.organizer o
+            WHERE j.geolocation IS NOT NULL
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<JummahMapResponse> streamAllLocations();
+
+    /**
+     * Jummahs whose latest create or update falls in a change version range, in change order.
+     *
+     * @param fromVersion Exclusive lower bound
+     * @param toVersion Inclusive upper bound
+     */
+    @Query("""
+            SELECT j FROM JummahEntity j LEFT JOIN FETCH j.organizer
+            WHERE j.changeVersion > :fromVersion AND j.changeVersion <= :toVersion
+            ORDER BY j.changeVersion
+            """)
+    List<JummahEntity> findChangedBetween(
+            @Param("fromVersion") long fromVersion,
+            @Param("toVersion") long toVersion,
+            Pageable pageable
+    );
+
+    /**
+     * Ids of the Jummahs taking place before a day, oldest first, served by the date/time index.
+     */
+    @Query("SELECT j.id FROM JummahEntity j WHERE j.date < :beforeDate ORDER BY j.date, j.time")
+    List<UUID> findIdsBefore(@Param("beforeDate") LocalDate beforeDate, Pageable pageable);
+
+    /**
+     * Add an attendee straight to the join table, unless the Jummah does not exist, the account
+     * is its organizer or already attends. Served by the primary key and the unique
+     * (jummah_id, account_id) constraint, without loading the attendee list.
+     *
+     * @return 1 if the attendee was added, 0 otherwise
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = JummahEntity.ATTENDANCE_QUERY_SPACE))
+    @Query(value = """
+            INSERT INTO jummahs_attendees (jummah_id, account_id)
+            SELECT j.id, :accountId FROM jummahs j
+            WHERE j.id = :jummahId
+              AND (j.organizer_id IS NULL OR j.organizer_id <> :accountId)
+              AND NOT EXISTS (
+                  SELECT 1 FROM jummahs_attendees a WHERE a.jummah_id = :jummahId AND a.account_id = :accountId)
+            """, nativeQuery = true)
+    int insertAttendee(@Param("jummahId") UUID jummahId, @Param("accountId") UUID accountId);
+
+    /**
+     * @return 1 if the attendee was removed, 0 if the account did not attend
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = JummahEntity.ATTENDANCE_QUERY_SPACE))
+    @Query(value = "DELETE FROM jummahs_attendees WHERE jummah_id = :jummahId AND account_id = :accountId", nativeQuery = true)
+    int deleteAttendee(@Param("jummahId") UUID jummahId, @Param("accountId") UUID accountId);
+
+    boolean existsByIdAndOrganizerId(UUID id, UUID organizerId);
+
+    @Query("SELECT j.attendeeCount FROM JummahEntity j WHERE j.id = :id")
+    Optional<Integer> findAttendeeCountById(@Param("id") UUID id);
+
+    /**
+     * Move the attendee counter of a Jummah by a delta in place, so concurrent joins and leaves never lose an update.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = JummahEntity.ATTENDANCE_QUERY_SPACE))
+    @Query(value = "UPDATE jummahs SET attendee_count = attendee_count + :delta WHERE id = :id", nativeQuery = true)
+    int addToAttendeeCount(@Param("id") UUID id, @Param("delta") int delta);
+
+    /**
+     * Reset the attendee counters that do not match the join table, e.g. for rows saved before the counter existed.
+     *
+     * @return The number of corrected Jummahs
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE jummahs SET attendee_count = (
+                SELECT COUNT(*) FROM jummahs_attendees a WHERE a.jummah_id = jummahs.id)
+            WHERE attendee_count <> (
+                SELECT COUNT(*) FROM jummahs_attendees a WHERE a.jummah_id = jummahs.id)
+            """, nativeQuery = true)
+    int reconcileAttendeeCounts();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = JummahEntity.ATTENDANCE_QUERY_SPACE))
+    @Query(value = "UPDATE jummahs SET change_version = :changeVersion WHERE id = :id", nativeQuery = true)
+    int updateChangeVersion(@Param("id") UUID id, @Param("changeVersion") long changeVersion);
+
+    @Modifying
+    @Query(value = "DELETE FROM jummahs_attendees WHERE jummah_id IN :ids", nativeQuery = true)
+    int deleteAttendeesByJummahIds(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query("DELETE FROM JummahEntity j WHERE j.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT COALESCE(MAX(j.changeVersion), 0) FROM JummahEntity j")
+    long findMaxChangeVersion();
+
+    /**
+     * Location of one Jummah, in one query joined to the organizer.
+     */
+    @Query("""
+            SELECT new com.islam.backend.domain.dto.jummah.response.JummahMapResponse(
+                j.id, j.geolocation.latitude, j.geolocation.longitude, COALESCE(o.verified, false), j.date, j.time, j.attendeeCount)
+            FROM JummahEntity j LEFT JOIN j.organizer o
+            WHERE j.id = :id AND j.geolocation IS NOT NULL
+            """)
+    Optional<JummahMapResponse> findLocationById(@Param("id") UUID id);
+
+    /**
+     * Locations of every Jummah with a location, in one query joined to the organizer.
+     */
+    @Query("""
+            SELECT new com.islam.backend.domain.dto.jummah.response.JummahMapResponse(
+                j.id, j.geolocation.latitude, j.geolocation.longitude, COALESCE(o.verified, false), j.date, j.time, j.attendeeCount)
+            FROM JummahEntity j LEFT JOIN j.organizer o
+            WHERE j.geolocation IS NOT NULL
+            """)
+    List<JummahMapResponse> findAllLocations();
+
+    /**
+     * Find Jummahs saved before the change version column existed.
+     */
+    List<JummahEntity> findByChangeVersion(long changeVersion, Pageable pageable);
+
+    /**
+     * Find Jummahs saved before the geohash column existed.
+     */
+    List<JummahEntity> findByGeolocationGeohashIsNull(Pageable pageable);
 }
@@ -0,0 +1,20 @@
+package com.islam.backend.repositories;
+
+import com.islam.backend.domain.entities.JummahTombstoneEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface JummahTombstoneRepository extends JpaRepository<JummahTombstoneEntity, UUID> {
+
+    List<JummahTombstoneEntity> findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersion(
+            long fromVersion, long toVersion, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(t.changeVersion), 0) FROM JummahTombstoneEntity t")
+    long findMaxChangeVersion();
+}
@@ -22,7 +22,7 @@ public class ApplicationConfiguration {
 
     @Bean
     UserDetailsService userDetailsService() {
-        return username -> accountRepository.findByEmail(username)
+        return username -> accountRepository.findByNaturalEmail(username)
                 .map(AppUserDetails::new)
                 .orElseThrow(() -> AuthenticationException.userNotFound(username));
     }
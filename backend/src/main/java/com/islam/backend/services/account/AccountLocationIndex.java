@@ -0,0 +1,112 @@
+package com.islam.backend.services.account;
+
+import com.islam.backend.domain.dto.account.response.AccountLocationResponse;
+import com.islam.backend.enums.Gender;
+import com.islam.backend.repositories.AccountRepository;
+import com.islam.backend.utils.GeoGridIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory spatial index of account locations, used to find the accounts around a new Jummah
+ * by visiting the grid cells under the search circle instead of scanning every account.
+ * Loaded in keyset pages once the application is ready and kept in sync on location updates.
+ */
+@Slf4j
+@Component
+public class AccountLocationIndex {
+
+    // Same cell size as the Jummah location index, close to the notification radius
+    private static final double CELL_SIZE_DEGREES = 0.1;
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    /**
+     * An indexed account: enough to pick the recipients of a notification without a database lookup.
+     */
+    public record Subscriber(UUID accountId, Gender gender) { }
+
+    private final AccountRepository accountRepository;
+    private final GeoGridIndex<Subscriber> grid = new GeoGridIndex<>(CELL_SIZE_DEGREES);
+
+    // Ids written while the index is loading, so older page rows do not overwrite them
+    private Set<UUID> touchedDuringLoad;
+
+    public AccountLocationIndex(AccountRepository accountRepository) {
+        this.accountRepository = accountRepository;
+    }
+
+    /**
+     * Load every account with a location into the index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            touchedDuringLoad = ConcurrentHashMap.newKeySet();
+        }
+
+        Pageable page = PageRequest.of(0, LOAD_BATCH_SIZE);
+        List<AccountLocationResponse> batch = accountRepository.findLocationPage(page);
+        while (!batch.isEmpty()) {
+            synchronized (this) {
+                for (AccountLocationResponse account : batch) {
+                    if (!touchedDuringLoad.contains(account.getId())) {
+                        grid.put(account.getId(), account.getLatitude(), account.getLongitude(),
+                                new Subscriber(account.getId(), account.getGender()));
+                    }
+                }
+            }
+            if (batch.size() < LOAD_BATCH_SIZE) {
+                break;
+            }
+            batch = accountRepository.findLocationPageAfter(batch.get(batch.size() - 1).getId(), page);
+        }
+
+        synchronized (this) {
+            touchedDuringLoad = null;
+        }
+        log.info("Account location index loaded with {} entries", grid.size());
+    }
+
+    /**
+     * Insert or move an account in the index.
+     */
+    public synchronized void put(UUID accountId, double latitude, double longitude, Gender gender) {
+        if (touchedDuringLoad != null) {
+            touchedDuringLoad.add(accountId);
+        }
+        grid.put(accountId, latitude, longitude, new Subscriber(accountId, gender));
+    }
+
+    public synchronized void remove(UUID accountId) {
+        if (touchedDuringLoad != null) {
+            touchedDuringLoad.add(accountId);
+        }
+        grid.remove(accountId);
+    }
+
+    /**
+     * Find the accounts within a radius of a point.
+     *
+     * @param latitude The latitude coordinate
+     * @param longitude The longitude coordinate
+     * @param radiusKm The search radius in kilometers
+     * @return The matching accounts
+     */
+    public List<Subscriber> findWithinRadius(double latitude, double longitude, double radiusKm) {
+        return grid.findWithinRadius(latitude, longitude, radiusKm);
+    }
+
+    public int size() {
+        return grid.size();
+    }
+}
@@ -1,5 +1,6 @@
 package com.islam.backend.services.account;
 
+import com.islam.backend.domain.dto.account.request.AccountGeoUpdateRequest;
 import com.islam.backend.domain.dto.account.response.AccountPublicResponse;
 
 import java.util.UUID;
@@ -8,4 +9,9 @@ public interface AccountPublicService {
 
     AccountPublicResponse findById(UUID id);
 
+    /**
+     * Set the location of an account, used to notify it of new Jummahs nearby.
+     */
+    void updateGeolocation(UUID accountId, AccountGeoUpdateRequest request);
+
 }
@@ -1,12 +1,18 @@
 package com.islam.backend.services.account.impl;
 
+import com.islam.backend.domain.dto.account.request.AccountGeoUpdateRequest;
 import com.islam.backend.domain.dto.account.response.AccountPublicResponse;
+import com.islam.backend.domain.entities.AccountEntity;
+import com.islam.backend.domain.entities.value.Geolocation;
+import com.islam.backend.exceptions.BadRequestException;
 import com.islam.backend.exceptions.ResourceNotFoundException;
 import com.islam.backend.mapper.AccountMapper;
 import com.islam.backend.repositories.AccountRepository;
+import com.islam.backend.services.account.AccountLocationIndex;
 import com.islam.backend.services.account.AccountPublicService;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.UUID;
 
@@ -16,11 +22,26 @@ public class AccountPublicServiceImpl implements AccountPublicService {
 
     private final AccountRepository accountRepository;
     private final AccountMapper accountMapper;
+    private final AccountLocationIndex accountLocationIndex;
 
     @Override
+    @Transactional(readOnly = true)
     public AccountPublicResponse findById(UUID id) {
         return accountRepository.findById(id)
                 .map(accountMapper::toPublicResponse)
                 .orElseThrow(() -> new ResourceNotFoundException("Account", id));
     }
+
+    @Override
+    public void updateGeolocation(UUID accountId, AccountGeoUpdateRequest request) {
+        if (request.getLatitude() < -90 || request.getLatitude() > 90
+                || request.getLongitude() < -180 || request.getLongitude() > 180) {
+            throw new BadRequestException("Latitude must be within [-90, 90] and longitude within [-180, 180]");
+        }
+        AccountEntity account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", accountId));
+        account.setGeolocation(new Geolocation(request.getLatitude(), request.getLongitude()));
+        accountRepository.save(account);
+        accountLocationIndex.put(accountId, request.getLatitude(), request.getLongitude(), account.getGender());
+    }
 }
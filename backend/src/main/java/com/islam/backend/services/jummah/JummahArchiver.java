@@ -0,0 +1,93 @@
+package com.islam.backend.services.jummah;
+
+import com.islam.backend.repositories.JummahArchiveRepository;
+import com.islam.backend.repositories.JummahRepository;
+import com.islam.backend.websocket.repositories.ChatMessageArchiveRepository;
+import com.islam.backend.websocket.repositories.ChatMessageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves past Jummahs, with their attendee rows and chat messages, from the live tables into the
+ * archive tables, so the live tables and their indexes only grow with upcoming events.
+ *
+ * Each batch is copied with set-based statements and removed in its own short transaction,
+ * leaving tombstones so delta sync clients drop the archived events as well. Batches only lock
+ * the rows they move, so live writes to other Jummahs carry on while archiving runs.
+ */
+@Slf4j
+@Component
+public class JummahArchiver {
+
+    private final JummahRepository jummahRepository;
+    private final JummahArchiveRepository jummahArchiveRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageArchiveRepository chatMessageArchiveRepository;
+    private final JummahChangeLog jummahChangeLog;
+    private final JummahLocationIndex jummahLocationIndex;
+    private final int archiveAfterDays;
+    private final int batchSize;
+
+    public JummahArchiver(JummahRepository jummahRepository,
+                          JummahArchiveRepository jummahArchiveRepository,
+                          ChatMessageRepository chatMessageRepository,
+                          ChatMessageArchiveRepository chatMessageArchiveRepository,
+                          JummahChangeLog jummahChangeLog,
+                          JummahLocationIndex jummahLocationIndex,
+                          @Value("${jummah.archive.after-days:30}") int archiveAfterDays,
+                          @Value("${jummah.archive.batch-size:200}") int batchSize) {
+        this.jummahRepository = jummahRepository;
+        this.jummahArchiveRepository = jummahArchiveRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.chatMessageArchiveRepository = chatMessageArchiveRepository;
+        this.jummahChangeLog = jummahChangeLog;
+        this.jummahLocationIndex = jummahLocationIndex;
+        this.archiveAfterDays = archiveAfterDays;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Archive every Jummah that took place more than the configured number of days ago.
+     *
+     * @return The number of archived Jummahs
+     */
+    @Scheduled(cron = "${jummah.archive.cron:0 30 3 * * *}")
+    public int archive() {
+        LocalDate cutoff = LocalDate.now().minusDays(archiveAfterDays);
+        int archived = 0;
+        List<UUID> batch;
+        do {
+            // Archived rows drop out of the result, so always read the first page
+            batch = jummahRepository.findIdsBefore(cutoff, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<UUID> ids = batch;
+            jummahChangeLog.deleteAll(ids, () -> moveToArchive(ids), (id, version) -> jummahLocationIndex.remove(id));
+            archived += ids.size();
+        } while (batch.size() == batchSize);
+
+        if (archived > 0) {
+            log.info("Archived {} Jummahs held before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    // Runs inside the change log's transaction: copy to the archive, then delete children before parents
+    private void moveToArchive(List<UUID> ids) {
+        jummahArchiveRepository.copyJummahs(ids, LocalDateTime.now());
+        jummahArchiveRepository.copyAttendees(ids);
+        chatMessageArchiveRepository.copyByJummahIds(ids);
+        chatMessageRepository.deleteByJummahIds(ids);
+        jummahRepository.deleteAttendeesByJummahIds(ids);
+        jummahRepository.deleteByIds(ids);
+    }
+}
@@ -0,0 +1,406 @@
+package com.islam.backend.services.jummah;
+
+import com.islam.backend.domain.entities.JummahChangeInFlightEntity;
+import com.islam.backend.domain.entities.JummahEntity;
+import com.islam.backend.domain.entities.JummahTombstoneEntity;
+import com.islam.backend.repositories.JummahChangeInFlightRepository;
+import com.islam.backend.repositories.JummahRepository;
+import com.islam.backend.repositories.JummahTombstoneRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.LongConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Assigns the global change versions that delta sync clients page through.
+ *
+ * Versions come from the {@value #CHANGE_SEQUENCE} database sequence, so changes on any instance
+ * get distinct, increasing versions without waiting for each other. Changes commit in any order,
+ * though, so before taking a version every change commits a registration below it, and removes
+ * the registration in its own transaction. {@link #committedVersion()} stops below the lowest
+ * registration still in flight, so a client that has seen version N can never miss a change
+ * numbered N or lower.
+ *
+ * Changes run in transactions of their own: the methods here refuse to join a caller's
+ * transaction, so "after commit" callbacks really run once the change is durable. Callbacks for
+ * the same Jummah never overlap.
+ *
+ * The log also keeps a bounded, evicting table of the latest version of recently read Jummahs, so HTTP
+ * validators can be checked without a database round trip.
+ */
+@Slf4j
+@Component
+public class JummahChangeLog {
+
+    public static final String CHANGE_SEQUENCE = "jummah_change_seq";
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    // Upper bound on the per-Jummah versions kept in memory; rarely read Jummahs are evicted first
+    private static final int MAX_TRACKED_VERSIONS = 10_000;
+
+    // Tracked version of a deleted Jummah, higher than any real version so late reads cannot revive it
+    private static final long DELETED = Long.MAX_VALUE;
+
+    // How long a deletion marker outlives its committed tombstone, covering reads that started before it
+    private static final Duration DELETED_MARKER_TTL = Duration.ofMinutes(1);
+
+    // Locks serializing the after-commit callbacks of one Jummah, picked by id hash
+    private static final int CALLBACK_STRIPES = 64;
+
+    private final JummahRepository jummahRepository;
+    private final JummahTombstoneRepository jummahTombstoneRepository;
+    private final JummahChangeInFlightRepository jummahChangeInFlightRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextVersionSql;
+    private final Duration inFlightTimeout;
+
+    private final Cache<UUID, Long> entityVersions = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_VERSIONS)
+            .expireAfter(new Expiry<UUID, Long>() {
+                @Override
+                public long expireAfterCreate(UUID id, Long tracked, long currentTime) {
+                    return tracked == DELETED ? DELETED_MARKER_TTL.toNanos() : Long.MAX_VALUE;
+                }
+
+                @Override
+                public long expireAfterUpdate(UUID id, Long tracked, long currentTime, long currentDuration) {
+                    return tracked == DELETED ? Math.min(currentDuration, DELETED_MARKER_TTL.toNanos()) : Long.MAX_VALUE;
+                }
+
+                @Override
+                public long expireAfterRead(UUID id, Long tracked, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    private final Object[] callbackStripes = new Object[CALLBACK_STRIPES];
+
+    // Highest version published by this instance, loaded from the database on first use
+    private final AtomicLong version = new AtomicLong(-1);
+
+    private final Object sequenceLock = new Object();
+    private volatile boolean sequenceReady = false;
+
+    public JummahChangeLog(JummahRepository jummahRepository,
+                           JummahTombstoneRepository jummahTombstoneRepository,
+                           JummahChangeInFlightRepository jummahChangeInFlightRepository,
+                           TransactionTemplate transactionTemplate,
+                           EntityManagerFactory entityManagerFactory,
+                           JdbcTemplate jdbcTemplate,
+                           @Value("${jummah.changes.in-flight-timeout:2m}") Duration inFlightTimeout) {
+        this.jummahRepository = jummahRepository;
+        this.jummahTombstoneRepository = jummahTombstoneRepository;
+        this.jummahChangeInFlightRepository = jummahChangeInFlightRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.nextVersionSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect().getSequenceSupport().getSequenceNextValString(CHANGE_SEQUENCE);
+        this.inFlightTimeout = inFlightTimeout;
+        for (int i = 0; i < CALLBACK_STRIPES; i++) {
+            callbackStripes[i] = new Object();
+        }
+    }
+
+    /**
+     * @return The highest version this instance has published or seen in the database, 0 if nothing has changed yet
+     */
+    public long currentVersion() {
+        long current = version.get();
+        if (current >= 0) {
+            return current;
+        }
+        long stored = Math.max(jummahRepository.findMaxChangeVersion(), jummahTombstoneRepository.findMaxChangeVersion());
+        return version.accumulateAndGet(stored, Math::max);
+    }
+
+    /**
+     * The version up to which every change is final: each version at or below it is either
+     * committed or will never appear. Changes registered longer than the in-flight timeout ago
+     * are considered abandoned.
+     *
+     * Reads the highest stored version first and the registrations after it. A change holding a
+     * version at or below that maximum registered before the maximum was committed, so it is either
+     * finished or still registered below its version when the registrations are read. Nothing is
+     * taken from the sequence, so polling does not use up versions.
+     *
+     * @return The delta sync watermark
+     */
+    public long committedVersion() {
+        long stored = Math.max(jummahRepository.findMaxChangeVersion(), jummahTombstoneRepository.findMaxChangeVersion());
+        return jummahChangeInFlightRepository.findLowestFloorRegisteredAfter(LocalDateTime.now().minus(inFlightTimeout))
+                .map(floor -> Math.min(floor, stored))
+                .orElse(stored);
+    }
+
+    /**
+     * @param id The Jummah ID
+     * @return The latest version of the Jummah if it is tracked in memory and not deleted
+     */
+    public OptionalLong versionOf(UUID id) {
+        Long tracked = entityVersions.getIfPresent(id);
+        return tracked == null || tracked == DELETED ? OptionalLong.empty() : OptionalLong.of(tracked);
+    }
+
+    /**
+     * Track the version of a Jummah that was just read from the database.
+     * A newer version recorded by a concurrent write is never replaced by an older one, and a
+     * Jummah deleted in the last minute stays deleted.
+     *
+     * @param id The Jummah ID
+     * @param changeVersion The version of the row that was read
+     */
+    public void recordVersion(UUID id, long changeVersion) {
+        entityVersions.asMap().merge(id, changeVersion, Math::max);
+    }
+
+    /**
+     * Save a created or updated Jummah with the next change version.
+     *
+     * @param entity The Jummah to save
+     * @return The saved Jummah
+     */
+    public JummahEntity save(JummahEntity entity) {
+        return save(entity, saved -> { });
+    }
+
+    /**
+     * Save a created or updated Jummah with the next change version, in a transaction of its own,
+     * and update in-memory views of it before the version is published, so a reader that sees the
+     * new version also sees the views in their new state.
+     *
+     * @param entity The Jummah to save
+     * @param afterCommit Receives the saved Jummah once it is committed
+     * @return The saved Jummah
+     * @throws IllegalStateException If called inside a transaction
+     */
+    public JummahEntity save(JummahEntity entity, Consumer<JummahEntity> afterCommit) {
+        JummahEntity saved = inRegisteredTransaction(() -> {
+            entity.setChangeVersion(nextVersion());
+            return jummahRepository.save(entity);
+        });
+        publish(saved.getId(), saved.getChangeVersion(), () -> afterCommit.accept(saved));
+        return saved;
+    }
+
+    /**
+     * Apply a change that writes around the Jummah entity, such as a join table row, and give the
+     * Jummah the next change version in the same transaction if the change touched anything.
+     *
+     * The Jummah's optimistic lock version is left alone: attendance changes are single conditional
+     * statements that never overwrite the entity, so concurrent joins and leaves to one Jummah only
+     * queue on its row lock instead of failing each other.
+     *
+     * @param id The Jummah ID
+     * @param change Applies the change inside the transaction and returns the number of rows it touched
+     * @param afterCommit Receives the new version once a change that touched rows is committed, before the version is published
+     * @return The number of rows the change touched
+     * @throws IllegalStateException If called inside a transaction
+     */
+    public int update(UUID id, IntSupplier change, LongConsumer afterCommit) {
+        long[] next = {0};
+        int touched = inRegisteredTransaction(() -> {
+            int rows = change.getAsInt();
+            if (rows > 0) {
+                next[0] = nextVersion();
+                jummahRepository.updateChangeVersion(id, next[0]);
+                evictCached(id);
+            }
+            return rows;
+        });
+        if (touched > 0) {
+            // Again once committed, in case a reader re-cached the old row in the meantime
+            evictCached(id);
+            publish(id, next[0], () -> afterCommit.accept(next[0]));
+        }
+        return touched;
+    }
+
+    // The statements of update() bypass the persistence context and the cache's locking, so drop the cached copies of that one Jummah
+    private void evictCached(UUID id) {
+        entityManagerFactory.getCache().evict(JummahEntity.class, id);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .evictCollectionData(JummahEntity.ATTENDEES_ROLE, id);
+    }
+
+    /**
+     * Delete a Jummah and leave a tombstone carrying the next change version, in one transaction.
+     *
+     * @param id The Jummah ID
+     * @param afterCommit Receives the version of the deletion once it is committed, before the version is published
+     * @throws IllegalStateException If called inside a transaction
+     */
+    public void delete(UUID id, LongConsumer afterCommit) {
+        deleteAll(List.of(id), () -> jummahRepository.deleteById(id), (deleted, version) -> afterCommit.accept(version));
+    }
+
+    /**
+     * Remove several Jummahs and leave a tombstone for each, carrying increasing change versions,
+     * in one transaction.
+     *
+     * @param ids The Jummah IDs
+     * @param removeRows Removes the Jummah rows, inside the transaction
+     * @param afterCommit Updates in-memory views of each removed Jummah once the removal is committed,
+     *                    receiving its ID and version before the version is published
+     * @throws IllegalStateException If called inside a transaction
+     */
+    public void deleteAll(List<UUID> ids, Runnable removeRows, ObjLongConsumer<UUID> afterCommit) {
+        List<JummahTombstoneEntity> tombstones = inRegisteredTransaction(() -> {
+            removeRows.run();
+            LocalDateTime deletedAt = LocalDateTime.now();
+            List<JummahTombstoneEntity> created = new ArrayList<>(ids.size());
+            for (UUID id : ids) {
+                created.add(JummahTombstoneEntity.builder()
+                        .jummahId(id)
+                        .changeVersion(nextVersion())
+                        .deletedAt(deletedAt)
+                        .build());
+            }
+            return jummahTombstoneRepository.saveAll(created);
+        });
+        for (JummahTombstoneEntity tombstone : tombstones) {
+            UUID id = tombstone.getJummahId();
+            long deletedVersion = tombstone.getChangeVersion();
+            publish(id, deletedVersion, () -> afterCommit.accept(id, deletedVersion));
+            entityVersions.put(id, DELETED); // Expires shortly, as the tombstone is already committed
+        }
+    }
+
+    /**
+     * Give Jummahs saved before the change version column existed a version of their own,
+     * so a full sync from version 0 includes them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfillChangeVersions() {
+        int updated = 0;
+        int batchSize;
+        do {
+            batchSize = inRegisteredTransaction(() -> {
+                // Saved rows drop out of the result, so always read the first page
+                List<JummahEntity> batch = jummahRepository.findByChangeVersion(0, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+                for (JummahEntity jummah : batch) {
+                    jummah.setChangeVersion(nextVersion());
+                }
+                jummahRepository.saveAll(batch);
+                return batch.size();
+            });
+            updated += batchSize;
+        } while (batchSize == BACKFILL_BATCH_SIZE);
+
+        if (updated > 0) {
+            version.set(-1);
+            log.info("Backfilled change version for {} Jummahs", updated);
+        }
+    }
+
+    /**
+     * Drop the registrations of changes abandoned by a crashed instance; readers already ignore them.
+     */
+    @Scheduled(fixedDelayString = "${jummah.changes.in-flight-timeout:2m}")
+    public void purgeAbandonedRegistrations() {
+        int purged = jummahChangeInFlightRepository.deleteRegisteredBefore(LocalDateTime.now().minus(inFlightTimeout));
+        if (purged > 0) {
+            log.warn("Purged {} abandoned Jummah change registrations", purged);
+        }
+    }
+
+    /**
+     * Register a change, then run it in a new transaction that also removes the registration.
+     * A failed change removes its registration separately.
+     */
+    private <T> T inRegisteredTransaction(Supplier<T> change) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Jummah changes run in their own transaction and cannot join the caller's");
+        }
+        ensureSequence();
+        UUID registration = jummahChangeInFlightRepository.save(JummahChangeInFlightEntity.builder()
+                .floorVersion(nextVersion())
+                .registeredAt(LocalDateTime.now())
+                .build()).getId();
+        try {
+            return transactionTemplate.execute(status -> {
+                T result = change.get();
+                jummahChangeInFlightRepository.deleteRegistration(registration);
+                return result;
+            });
+        } catch (RuntimeException e) {
+            try {
+                jummahChangeInFlightRepository.deleteRegistration(registration);
+            } catch (RuntimeException cleanup) {
+                e.addSuppressed(cleanup); // Expires after the in-flight timeout
+            }
+            throw e;
+        }
+    }
+
+    // Runs the after-commit callback of a change, never concurrently with another one for the same Jummah
+    private void publish(UUID id, long changeVersion, Runnable afterCommit) {
+        synchronized (callbackStripes[Math.floorMod(id.hashCode(), CALLBACK_STRIPES)]) {
+            afterCommit.run();
+            recordVersion(id, changeVersion);
+        }
+        version.accumulateAndGet(changeVersion, Math::max);
+    }
+
+    private long nextVersion() {
+        Long next = jdbcTemplate.queryForObject(nextVersionSql, Long.class);
+        if (next == null) {
+            throw new IllegalStateException("Sequence " + CHANGE_SEQUENCE + " returned no value");
+        }
+        return next;
+    }
+
+    /**
+     * Create the version sequence on first use, starting past every version already stored.
+     * Runs outside transactions, since some databases commit on DDL.
+     */
+    private void ensureSequence() {
+        if (sequenceReady) {
+            return;
+        }
+        synchronized (sequenceLock) {
+            if (sequenceReady) {
+                return;
+            }
+            long stored = Math.max(jummahRepository.findMaxChangeVersion(), jummahTombstoneRepository.findMaxChangeVersion());
+            // IF NOT EXISTS is understood by both PostgreSQL and H2
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + CHANGE_SEQUENCE + " START WITH " + (stored + 1));
+            if (nextVersion() <= stored) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + CHANGE_SEQUENCE + " RESTART WITH " + (stored + 1));
+                log.info("Advanced Jummah change sequence to {}", stored + 1);
+            }
+            sequenceReady = true;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.islam.backend.services.jummah;
+
+import com.islam.backend.exceptions.ConflictException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Retries Jummah writes that lost a race with a concurrent write to the same Jummah.
+ *
+ * A write is retried when it fails with a {@link ConcurrencyFailureException}: a stale
+ * {@code @Version}, a lock timeout or a deadlock. Attempts are spaced with "full jitter"
+ * exponential backoff, a random delay between zero and a doubling cap, so writers that
+ * collided once do not collide again in lockstep. Conflicts, retries and given-up writes
+ * are counted per operation as {@code jummah.write.conflicts}, {@code jummah.write.retries}
+ * and {@code jummah.write.exhausted}.
+ */
+@Slf4j
+@Component
+public class JummahConflictRetry {
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final MeterRegistry meterRegistry;
+
+    public JummahConflictRetry(@Value("${jummah.retry.max-attempts:4}") int maxAttempts,
+                               @Value("${jummah.retry.initial-backoff:20ms}") Duration initialBackoff,
+                               @Value("${jummah.retry.max-backoff:500ms}") Duration maxBackoff,
+                               MeterRegistry meterRegistry) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Run a write, retrying it while it conflicts with concurrent writes.
+     * The write must be safe to repeat: it should re-read whatever it modifies on every attempt.
+     *
+     * @param operation Name of the write, used as the metric tag
+     * @param jummahId The Jummah being written
+     * @param write The write
+     * @return The result of the first attempt that did not conflict
+     * @throws ConflictException If every attempt conflicted
+     */
+    public <T> T run(String operation, UUID jummahId, Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write.get();
+            } catch (ConcurrencyFailureException e) {
+                meterRegistry.counter("jummah.write.conflicts", "operation", operation).increment();
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("jummah.write.exhausted", "operation", operation).increment();
+                    log.warn("Giving up {} of Jummah {} after {} conflicting attempts", operation, jummahId, attempt);
+                    throw new ConflictException("Jummah " + jummahId + " is being changed concurrently, try again", e);
+                }
+                log.debug("Retrying {} of Jummah {} after conflict {}: {}", operation, jummahId, attempt, e.getMessage());
+                meterRegistry.counter("jummah.write.retries", "operation", operation).increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        if (cap <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while waiting to retry a conflicting write", e);
+        }
+    }
+}
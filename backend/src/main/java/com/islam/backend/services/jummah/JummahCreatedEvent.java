@@ -0,0 +1,15 @@
+package com.islam.backend.services.jummah;
+
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.enums.Gender;
+
+import java.util.UUID;
+
+/**
+ * Published once a new Jummah with a location has been committed.
+ *
+ * @param location The new Jummah
+ * @param organizerId The organizer, who is not notified of their own Jummah; null if unknown
+ * @param genderTarget The gender the Jummah is held for
+ */
+public record JummahCreatedEvent(JummahMapResponse location, UUID organizerId, Gender genderTarget) { }
@@ -0,0 +1,417 @@
+package com.islam.backend.services.jummah;
+
+import com.islam.backend.domain.dto.jummah.response.JummahClusterResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahMapViewResponse;
+import com.islam.backend.mapper.JummahSnapshotMapper;
+import com.islam.backend.repositories.JummahRepository;
+import com.islam.backend.utils.BoundingBox;
+import com.islam.backend.utils.DistanceMode;
+import com.islam.backend.utils.GeoClusterGrid;
+import com.islam.backend.utils.GeoGridIndex;
+import com.islam.backend.utils.TimeWindow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * In-memory spatial index of Jummah locations.
+ * Loaded once the application is ready and kept in sync by the Jummah services on every write,
+ * so nearby searches never have to scan the jummahs table.
+ *
+ * Only Jummahs taking place today or later are held, partitioned by day: past days are dropped
+ * as a whole when the date changes, so old events cost nothing at query time. Queries for windows
+ * starting before today are left to the database (see {@link #covers}).
+ */
+@Slf4j
+@Component
+public class JummahLocationIndex {
+
+    // 0.1 degree cells are roughly 11 km tall, close to the typical nearby search radius
+    private static final double CELL_SIZE_DEGREES = 0.1;
+
+    /**
+     * Deepest zoom level served as clusters; deeper zoom levels get individual points.
+     */
+    public static final int CLUSTER_MAX_ZOOM = 14;
+
+    /**
+     * Upper bound on the clusters in one viewport response; larger viewports use coarser clusters.
+     */
+    public static final int MAX_VIEWPORT_CLUSTERS = 1024;
+
+    /**
+     * Upper bound on the points in one viewport response; denser viewports are clustered instead.
+     */
+    public static final int MAX_VIEWPORT_POINTS = 1000;
+
+    private final JummahRepository jummahRepository;
+    private final JummahSnapshotMapper jummahSnapshotMapper;
+
+    // One instance for the lifetime of the index, so the encoded cells cached by the grid are reused
+    private final Function<List<JummahMapResponse>, byte[]> cellEncoder;
+
+    private final GeoGridIndex<JummahMapResponse> grid;
+
+    // Only used for the geometry of the cluster levels, never filled
+    private final GeoClusterGrid clusterLevels = new GeoClusterGrid(CLUSTER_MAX_ZOOM);
+
+    // The Jummahs of one day: their ids, to expire them with the day, and their clusters
+    private record Day(Set<UUID> ids, GeoClusterGrid clusters) { }
+
+    private final ConcurrentNavigableMap<LocalDate, Day> days = new ConcurrentSkipListMap<>();
+
+    // Source of the current date, which decides when days expire
+    private final Clock clock;
+
+    // First day held by the index; earlier days have been dropped
+    private volatile LocalDate today;
+
+    private volatile boolean ready = false;
+
+    // Ids written while a rebuild is loading, so the stale snapshot does not overwrite them
+    private Set<UUID> touchedDuringRebuild;
+
+    @Autowired
+    public JummahLocationIndex(JummahRepository jummahRepository,
+                               JummahSnapshotMapper jummahSnapshotMapper,
+                               @Value("${geo.distance-mode:HAVERSINE}") DistanceMode distanceMode) {
+        this(jummahRepository, jummahSnapshotMapper, distanceMode, Clock.systemDefaultZone());
+    }
+
+    JummahLocationIndex(JummahRepository jummahRepository,
+                        JummahSnapshotMapper jummahSnapshotMapper,
+                        DistanceMode distanceMode,
+                        Clock clock) {
+        this.jummahRepository = jummahRepository;
+        this.jummahSnapshotMapper = jummahSnapshotMapper;
+        this.cellEncoder = jummahSnapshotMapper::toPointBlock;
+        this.grid = new GeoGridIndex<>(CELL_SIZE_DEGREES, distanceMode);
+        this.clock = clock;
+        this.today = LocalDate.now(clock);
+    }
+
+    /**
+     * Load every Jummah with a location into the index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            ready = false;
+            touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+        }
+
+        LocalDate firstDay = LocalDate.now(clock);
+        List<JummahMapResponse> snapshot = jummahRepository.findLocationsFrom(firstDay);
+
+        synchronized (this) {
+            grid.clear();
+            days.clear();
+            today = firstDay;
+            for (JummahMapResponse location : snapshot) {
+                if (!touchedDuringRebuild.contains(location.getId())) {
+                    put(location);
+                }
+            }
+            touchedDuringRebuild = null;
+            ready = true;
+        }
+        log.info("Jummah location index loaded with {} entries", grid.size());
+    }
+
+    /**
+     * @return true once the initial load has completed and queries can be served from memory
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Replace the indexed location of a Jummah, e.g. after its attendee count changed.
+     *
+     * @param location The Jummah's current location
+     */
+    public synchronized void index(JummahMapResponse location) {
+        expirePastDays();
+        if (touchedDuringRebuild != null) {
+            touchedDuringRebuild.add(location.getId());
+        }
+        put(location);
+    }
+
+    /**
+     * Remove a Jummah from the index.
+     *
+     * @param id The Jummah ID
+     */
+    public synchronized void remove(UUID id) {
+        expirePastDays();
+        if (touchedDuringRebuild != null) {
+            touchedDuringRebuild.add(id);
+        }
+        delete(id);
+    }
+
+    /**
+     * @param window The requested start times
+     * @return true if the index is loaded and holds every Jummah starting inside the window
+     */
+    public boolean covers(TimeWindow window) {
+        expirePastDays();
+        return ready && !window.from().toLocalDate().isBefore(today);
+    }
+
+    /**
+     * @param id The Jummah ID
+     * @return The indexed location of the Jummah, if it has one
+     */
+    public Optional<JummahMapResponse> find(UUID id) {
+        return grid.get(id).map(GeoGridIndex.Entry::value);
+    }
+
+    /**
+     * Find the Jummah locations within a radius of a point, from today onwards.
+     *
+     * @param latitude The latitude coordinate
+     * @param longitude The longitude coordinate
+     * @param radiusKm The search radius in kilometers
+     * @return The matching locations
+     */
+    public List<JummahMapResponse> findWithinRadius(double latitude, double longitude, double radiusKm) {
+        expirePastDays();
+        return grid.findWithinRadius(latitude, longitude, radiusKm);
+    }
+
+    /**
+     * Encode the Jummah locations within a radius of a point as a binary snapshot.
+     * Grid cells entirely inside the circle are written from their cached encoding;
+     * only the cells crossing the edge are filtered and encoded for this request.
+     *
+     * @param latitude The latitude coordinate
+     * @param longitude The longitude coordinate
+     * @param radiusKm The search radius in kilometers
+     * @param window The start times to include, covered by the index
+     * @return The header and blocks of the snapshot, to be written in order
+     */
+    public List<byte[]> findWithinRadiusSnapshot(double latitude, double longitude, double radiusKm, TimeWindow window) {
+        expirePastDays();
+        List<byte[]> blocks = new ArrayList<>();
+        blocks.add(jummahSnapshotMapper.toHeader(JummahSnapshotMapper.NO_ZOOM));
+        List<JummahMapResponse> edgePoints = new ArrayList<>();
+        if (isWholeIndex(window)) {
+            grid.findWithinRadius(latitude, longitude, radiusKm, cellEncoder, blocks::add, edgePoints::add);
+        } else {
+            // The cached cells hold every day, so filter the points of a narrower window one by one
+            edgePoints.addAll(inWindow(grid.findWithinRadius(latitude, longitude, radiusKm), window));
+        }
+        if (!edgePoints.isEmpty()) {
+            blocks.add(jummahSnapshotMapper.toPointBlock(edgePoints));
+        }
+        return blocks;
+    }
+
+    /**
+     * Find the Jummah locations closest to a point.
+     *
+     * @param latitude The latitude coordinate
+     * @param longitude The longitude coordinate
+     * @param k The number of locations to return
+     * @param maxDistanceKm Locations further than this are ignored
+     * @return Up to k locations with their distance, closest first
+     */
+    public List<GeoGridIndex.Neighbor<JummahMapResponse>> findNearest(double latitude, double longitude, int k, double maxDistanceKm) {
+        expirePastDays();
+        return grid.findNearest(latitude, longitude, k, maxDistanceKm);
+    }
+
+    /**
+     * Find the Jummah locations inside a map viewport.
+     * Up to {@link #CLUSTER_MAX_ZOOM} locations are aggregated into one cluster per grid cell,
+     * and clusters holding a single location are returned as that location.
+     * Clusters count every Jummah on the days the window touches; points are filtered exactly.
+     *
+     * @param viewport The visible area
+     * @param zoom The map zoom level
+     * @param window The start times to include, covered by the index
+     * @return The clusters and locations inside the viewport
+     */
+    public JummahMapViewResponse findInViewport(BoundingBox viewport, int zoom, TimeWindow window) {
+        expirePastDays();
+        // Only list points for viewports small enough to be a real high-zoom view
+        if (zoom > CLUSTER_MAX_ZOOM
+                && clusterLevels.levelFor(viewport, CLUSTER_MAX_ZOOM, MAX_VIEWPORT_CLUSTERS) == CLUSTER_MAX_ZOOM) {
+            List<JummahMapResponse> points = inWindow(grid.findWithinBoundingBox(viewport), window);
+            if (points.size() <= MAX_VIEWPORT_POINTS) {
+                return JummahMapViewResponse.builder()
+                        .zoom(zoom)
+                        .clusters(List.of())
+                        .points(points)
+                        .build();
+            }
+        }
+
+        int level = clusterLevels.levelFor(viewport, zoom, MAX_VIEWPORT_CLUSTERS);
+        List<JummahClusterResponse> clusterResponses = new ArrayList<>();
+        List<JummahMapResponse> points = new ArrayList<>();
+        for (GeoClusterGrid.Cluster cluster : GeoClusterGrid.findWithinBoundingBox(clustersIn(window), viewport, level)) {
+            if (cluster.singleId() != null) {
+                grid.get(cluster.singleId())
+                        .map(GeoGridIndex.Entry::value)
+                        .filter(location -> window.contains(location.getDate(), location.getTime()))
+                        .ifPresent(points::add);
+            } else {
+                clusterResponses.add(JummahClusterResponse.builder()
+                        .latitude(cluster.latitude())
+                        .longitude(cluster.longitude())
+                        .count(cluster.count())
+                        .build());
+            }
+        }
+        return JummahMapViewResponse.builder()
+                .zoom(level)
+                .clusters(clusterResponses)
+                .points(points)
+                .build();
+    }
+
+    /**
+     * Encode the Jummah locations inside a map viewport as a binary snapshot, with the same
+     * clusters and points as {@link #findInViewport}. In point mode, grid cells entirely inside
+     * the viewport are written from their cached encoding when the window spans the whole index.
+     *
+     * @param viewport The visible area
+     * @param zoom The map zoom level
+     * @param window The start times to include, covered by the index
+     * @return The header and blocks of the snapshot, to be written in order
+     */
+    public List<byte[]> findInViewportSnapshot(BoundingBox viewport, int zoom, TimeWindow window) {
+        expirePastDays();
+        // The deepest clusters overlapping the viewport bound its point count from above
+        if (zoom > CLUSTER_MAX_ZOOM
+                && clusterLevels.levelFor(viewport, CLUSTER_MAX_ZOOM, MAX_VIEWPORT_CLUSTERS) == CLUSTER_MAX_ZOOM
+                && GeoClusterGrid.findWithinBoundingBox(clustersIn(window), viewport, CLUSTER_MAX_ZOOM).stream()
+                        .mapToLong(GeoClusterGrid.Cluster::count).sum() <= MAX_VIEWPORT_POINTS) {
+            List<byte[]> blocks = new ArrayList<>();
+            blocks.add(jummahSnapshotMapper.toHeader(zoom));
+            List<JummahMapResponse> edgePoints = new ArrayList<>();
+            if (isWholeIndex(window)) {
+                grid.findWithinBoundingBox(viewport, cellEncoder, blocks::add, edgePoints::add);
+            } else {
+                edgePoints.addAll(inWindow(grid.findWithinBoundingBox(viewport), window));
+            }
+            if (!edgePoints.isEmpty()) {
+                blocks.add(jummahSnapshotMapper.toPointBlock(edgePoints));
+            }
+            return blocks;
+        }
+
+        JummahMapViewResponse view = findInViewport(viewport, zoom, window);
+        List<byte[]> blocks = new ArrayList<>();
+        blocks.add(jummahSnapshotMapper.toHeader(view.getZoom()));
+        if (!view.getClusters().isEmpty()) {
+            blocks.add(jummahSnapshotMapper.toClusterBlock(view.getClusters()));
+        }
+        if (!view.getPoints().isEmpty()) {
+            blocks.add(jummahSnapshotMapper.toPointBlock(view.getPoints()));
+        }
+        return blocks;
+    }
+
+    // True if the window holds every Jummah in the index, so results need no filtering
+    private boolean isWholeIndex(TimeWindow window) {
+        return window.to() == null && !window.from().isAfter(today.atStartOfDay());
+    }
+
+    private List<JummahMapResponse> inWindow(List<JummahMapResponse> locations, TimeWindow window) {
+        if (isWholeIndex(window)) {
+            return locations;
+        }
+        return locations.stream()
+                .filter(location -> window.contains(location.getDate(), location.getTime()))
+                .toList();
+    }
+
+    // The cluster grids of the days the window touches
+    private List<GeoClusterGrid> clustersIn(TimeWindow window) {
+        LocalDate firstDay = window.from().toLocalDate();
+        NavigableMap<LocalDate, Day> inWindow = window.to() == null
+                ? days.tailMap(firstDay, true)
+                : days.subMap(firstDay, true, window.to().toLocalDate(), window.to().toLocalTime().isAfter(LocalTime.MIDNIGHT));
+        return inWindow.values().stream().map(Day::clusters).toList();
+    }
+
+    /**
+     * Drop the days before today once the date has changed.
+     */
+    private void expirePastDays() {
+        LocalDate now = LocalDate.now(clock);
+        if (!now.isAfter(today)) {
+            return;
+        }
+        synchronized (this) {
+            if (!now.isAfter(today)) {
+                return;
+            }
+            NavigableMap<LocalDate, Day> past = days.headMap(now, false);
+            int expired = 0;
+            for (Day day : past.values()) {
+                for (UUID id : day.ids()) {
+                    grid.remove(id);
+                    expired++;
+                }
+            }
+            past.clear();
+            today = now;
+            log.info("Jummah location index dropped {} past entries", expired);
+        }
+    }
+
+    private void put(JummahMapResponse location) {
+        if (location.getDate().isBefore(today)) {
+            delete(location.getId());
+            return;
+        }
+        grid.get(location.getId()).ifPresent(previous -> removeFromDay(previous.value()));
+        grid.put(location.getId(), location.getLatitude(), location.getLongitude(), location);
+        Day day = days.computeIfAbsent(location.getDate(),
+                date -> new Day(ConcurrentHashMap.newKeySet(), new GeoClusterGrid(CLUSTER_MAX_ZOOM)));
+        day.ids().add(location.getId());
+        day.clusters().add(location.getId(), location.getLatitude(), location.getLongitude());
+    }
+
+    private void delete(UUID id) {
+        grid.get(id).ifPresent(previous -> {
+            grid.remove(id);
+            removeFromDay(previous.value());
+        });
+    }
+
+    private void removeFromDay(JummahMapResponse location) {
+        Day day = days.get(location.getDate());
+        if (day == null) {
+            return;
+        }
+        day.ids().remove(location.getId());
+        day.clusters().remove(location.getId(), location.getLatitude(), location.getLongitude());
+        if (day.ids().isEmpty()) {
+            days.remove(location.getDate());
+        }
+    }
+}
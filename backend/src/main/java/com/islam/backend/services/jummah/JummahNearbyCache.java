@@ -0,0 +1,178 @@
+package com.islam.backend.services.jummah;
+
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.utils.BoundingBox;
+import com.islam.backend.utils.GeoCellRegistry;
+import com.islam.backend.utils.GeoMath;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of nearby search results.
+ *
+ * Search centers are snapped to a grid of {@link #QUANTUM_DEGREES}, so users standing a few
+ * metres apart share one entry. The entry holds every location within the radius plus
+ * {@link #SNAP_SLACK_KM} of the center of their grid square, a superset of each user's own circle,
+ * which is then cut out exactly around the user's position. Every entry is also registered under
+ * the coarse cells its circle overlaps, so a changed location only evicts the entries whose circle
+ * contains it.
+ */
+@Component
+public class JummahNearbyCache {
+
+    /**
+     * Grid used to snap search centers; about 110 m of latitude.
+     */
+    public static final double QUANTUM_DEGREES = 0.001;
+
+    /**
+     * Farthest a search center can be from the center of its grid square: half the square's
+     * diagonal, at most about 79 m.
+     */
+    public static final double SNAP_SLACK_KM = Math.toRadians(QUANTUM_DEGREES) * GeoMath.EARTH_RADIUS_KM * Math.sqrt(2) / 2;
+
+    /**
+     * Larger searches bypass the cache, so an entry never spans more than a few invalidation cells.
+     */
+    public static final int MAX_CACHED_RADIUS_KM = 50;
+
+    private static final double INVALIDATION_CELL_DEGREES = 0.5;
+
+    /**
+     * Runs an uncached search around a point.
+     */
+    @FunctionalInterface
+    public interface RadiusSearch {
+        List<JummahMapResponse> find(double latitude, double longitude, double radiusKm);
+    }
+
+    private record Key(long latitudeCell, long longitudeCell, int radiusKm) {
+
+        private double latitude() {
+            return (latitudeCell + 0.5) * QUANTUM_DEGREES;
+        }
+
+        private double longitude() {
+            return (longitudeCell + 0.5) * QUANTUM_DEGREES;
+        }
+
+        // The cached circle, wide enough for any search center in the grid square
+        private double cachedRadiusKm() {
+            return radiusKm + SNAP_SLACK_KM;
+        }
+
+        private BoundingBox area() {
+            return GeoMath.boundingBox(latitude(), longitude(), cachedRadiusKm());
+        }
+    }
+
+    private final int maxEntries;
+    private final Map<Key, List<JummahMapResponse>> entries;
+    private final GeoCellRegistry<Key> registry = new GeoCellRegistry<>(INVALIDATION_CELL_DEGREES);
+
+    // Bumped by every invalidation, so a result computed before a write is never stored after it
+    private long generation = 0;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+
+    public JummahNearbyCache(@Value("${jummah.nearby-cache.max-entries:10000}") int maxEntries,
+                             MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<JummahMapResponse>> eldest) {
+                if (size() <= JummahNearbyCache.this.maxEntries) {
+                    return false;
+                }
+                registry.unregister(eldest.getKey(), eldest.getKey().area());
+                evictions.increment();
+                return true;
+            }
+        };
+        this.hits = meterRegistry.counter("jummah.nearby.cache", "result", "hit");
+        this.misses = meterRegistry.counter("jummah.nearby.cache", "result", "miss");
+        this.evictions = meterRegistry.counter("jummah.nearby.cache.evictions");
+        this.invalidations = meterRegistry.counter("jummah.nearby.cache.invalidations");
+        Gauge.builder("jummah.nearby.cache.size", this, JummahNearbyCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Get the locations within a radius of a point, cut out of the cached superset around its grid
+     * square, or compute and cache the superset first.
+     *
+     * @param latitude The latitude of the search center
+     * @param longitude The longitude of the search center
+     * @param radiusKm The search radius in kilometers
+     * @param search Runs an uncached search; cached supersets are searched around the grid square center
+     * @return The locations whose haversine distance from the search center is within the radius
+     */
+    public List<JummahMapResponse> get(double latitude, double longitude, int radiusKm, RadiusSearch search) {
+        if (radiusKm > MAX_CACHED_RADIUS_KM) {
+            return search.find(latitude, longitude, radiusKm);
+        }
+
+        Key key = new Key((long) Math.floor(latitude / QUANTUM_DEGREES),
+                (long) Math.floor(longitude / QUANTUM_DEGREES), radiusKm);
+        long startGeneration;
+        synchronized (this) {
+            List<JummahMapResponse> cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return withinRadius(cached, latitude, longitude, radiusKm);
+            }
+            startGeneration = generation;
+        }
+
+        misses.increment();
+        List<JummahMapResponse> superset = List.copyOf(search.find(key.latitude(), key.longitude(), key.cachedRadiusKm()));
+        synchronized (this) {
+            if (generation == startGeneration && !entries.containsKey(key)) {
+                entries.put(key, superset);
+                registry.register(key, key.area());
+            }
+        }
+        return withinRadius(superset, latitude, longitude, radiusKm);
+    }
+
+    /**
+     * Evict the entries whose search circle contains a location that was added, moved or removed.
+     * Must be called after the change is visible to searches.
+     *
+     * @param latitude The latitude of the changed location
+     * @param longitude The longitude of the changed location
+     */
+    public synchronized void invalidate(double latitude, double longitude) {
+        generation++;
+        for (Key key : new ArrayList<>(registry.keysAt(latitude, longitude))) {
+            if (GeoMath.haversineDistance(key.latitude(), key.longitude(), latitude, longitude) <= key.cachedRadiusKm()) {
+                entries.remove(key);
+                registry.unregister(key, key.area());
+                invalidations.increment();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Same distance test as the database fallback, so both paths agree on the circle's edge
+    private static List<JummahMapResponse> withinRadius(List<JummahMapResponse> superset,
+                                                        double latitude, double longitude, int radiusKm) {
+        return superset.stream()
+                .filter(location -> GeoMath.haversineDistance(latitude, longitude,
+                        location.getLatitude(), location.getLongitude()) <= radiusKm)
+                .toList();
+    }
+}
@@ -1,13 +1,24 @@
 package com.islam.backend.services.jummah;
 
+import com.islam.backend.domain.dto.jummah.request.JummahAttendeeBulkRequest;
 import com.islam.backend.domain.dto.jummah.request.JummahCreateRequest;
+import com.islam.backend.domain.dto.jummah.response.JummahArchiveResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahAttendeeBulkResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahChangesResponse;
 import com.islam.backend.domain.dto.jummah.response.JummahCreateResponse;
 import com.islam.backend.domain.dto.jummah.response.JummahDetailResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahLocationPageResponse;
 import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahMapViewResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahNearestResponse;
 import com.islam.backend.security.user.AppUserDetails;
+import com.islam.backend.utils.BoundingBox;
+import com.islam.backend.utils.TimeWindow;
 
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface JummahPublicService {
 
@@ -15,15 +26,112 @@ public interface JummahPublicService {
 
     List<JummahMapResponse> findAllJummahLocation();
 
+    /**
+     * Read one page of Jummah locations, ordered by id.
+     *
+     * @param after The last id of the previous page, or null for the first page
+     * @param size The page size
+     * @return The page and the cursor of the next one
+     */
+    JummahLocationPageResponse findJummahLocationPage(UUID after, int size);
+
+    /**
+     * Pass every Jummah location to a consumer straight from a database cursor,
+     * without holding more than one fetch chunk in memory.
+     *
+     * @param consumer Receives the locations, in no particular order
+     */
+    void streamAllJummahLocation(Consumer<JummahMapResponse> consumer);
+
+    /**
+     * Read the Jummahs created, updated or deleted after a change version, oldest change first.
+     *
+     * @param since The version returned by the client's previous sync, 0 for a full sync
+     * @param limit The maximum number of changes to return
+     * @return The changes and the version to sync from next
+     */
+    JummahChangesResponse findChangesSince(long since, int limit);
+
     JummahDetailResponse findById(UUID id);
 
+    /**
+     * @param viewport The visible area
+     * @return The STOMP topics announcing changes to the Jummahs inside the viewport
+     */
+    List<String> findLiveTopics(BoundingBox viewport);
+
+    /**
+     * Read a past Jummah that was moved to the archive.
+     *
+     * @param id The Jummah ID
+     * @return The archived Jummah
+     */
+    JummahArchiveResponse findArchivedById(UUID id);
+
+    /**
+     * @param id The Jummah ID
+     * @return The change version of a Jummah if it is known without a database lookup
+     */
+    OptionalLong findCachedVersion(UUID id);
+
+    /**
+     * @return The version of the latest change to any Jummah
+     */
+    long findDatasetVersion();
+
     boolean updateJummah(UUID id, JummahCreateRequest request);
 
     boolean addAttendee(UUID jummahId, UUID accountId);
 
     boolean removeAttendee(UUID jummahId, UUID accountId);
 
+    /**
+     * Add and remove many attendees at once.
+     *
+     * @param jummahId The Jummah ID
+     * @param organizerId The organizer of the Jummah, who cannot attend it
+     * @param request The accounts to add and to remove
+     * @return The outcome for each account and the new attendee count
+     */
+    JummahAttendeeBulkResponse updateAttendees(UUID jummahId, UUID organizerId, JummahAttendeeBulkRequest request);
+
+    /**
+     * @return true if the account organizes the Jummah
+     */
+    boolean isOrganizer(UUID jummahId, UUID accountId);
+
     void deleteById(UUID id);
 
-    List<JummahMapResponse> findNearbyByRadius(Double latitude, Double longitude, Integer radius);
+    /**
+     * Find the Jummahs within a radius of a location.
+     *
+     * @param window The start times to include
+     */
+    List<JummahMapResponse> findNearbyByRadius(double latitude, double longitude, int radius, TimeWindow window);
+
+    /**
+     * Find the upcoming Jummahs closest to a location.
+     */
+    List<JummahNearestResponse> findNearest(double latitude, double longitude, int k);
+
+    /**
+     * Find the Jummahs inside a map viewport, clustered when zoomed out.
+     *
+     * @param window The start times to include
+     */
+    JummahMapViewResponse findInViewport(BoundingBox viewport, int zoom, TimeWindow window);
+
+    /**
+     * Same result as {@link #findNearbyByRadius}, encoded as a binary snapshot.
+     *
+     * @return The snapshot, split into parts to be written in order
+     */
+    List<byte[]> findNearbySnapshot(double latitude, double longitude, int radius, TimeWindow window);
+
+    /**
+     * Same result as {@link #findInViewport}, encoded as a binary snapshot.
+     *
+     * @return The snapshot, split into parts to be written in order
+     */
+    List<byte[]> findInViewportSnapshot(BoundingBox viewport, int zoom, TimeWindow window);
 }
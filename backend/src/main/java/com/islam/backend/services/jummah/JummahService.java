@@ -8,5 +8,17 @@ public interface JummahService {
 
     JummahEntity findById(UUID id);
 
+    /**
+     * Fill in the geohash of Jummahs saved before the column existed.
+     *
+     * @return The number of updated Jummahs
+     */
+    int backfillGeohashes();
 
+    /**
+     * Correct the attendee counters that do not match the attendee join table.
+     *
+     * @return The number of corrected Jummahs
+     */
+    int backfillAttendeeCounts();
 }
@@ -1,59 +1,215 @@
 package com.islam.backend.services.jummah.impl;
 
+import com.islam.backend.domain.dto.jummah.request.JummahAttendeeBulkRequest;
 import com.islam.backend.domain.dto.jummah.request.JummahCreateRequest;
+import com.islam.backend.domain.dto.jummah.response.JummahArchiveResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahAttendeeBulkResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahChangesResponse;
 import com.islam.backend.domain.dto.jummah.response.JummahCreateResponse;
 import com.islam.backend.domain.dto.jummah.response.JummahDetailResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahClusterResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahLocationPageResponse;
 import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
-import com.islam.backend.domain.entities.AccountEntity;
+import com.islam.backend.domain.dto.jummah.response.JummahMapViewResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahNearestResponse;
 import com.islam.backend.domain.entities.JummahEntity;
+import com.islam.backend.domain.entities.JummahTombstoneEntity;
 import com.islam.backend.domain.entities.value.Geolocation;
+import com.islam.backend.enums.AttendeeChangeStatus;
+import com.islam.backend.exceptions.BadRequestException;
 import com.islam.backend.exceptions.ResourceNotFoundException;
+import com.islam.backend.mapper.JummahSnapshotMapper;
 import com.islam.backend.mapper.impl.JummahMapperImpl;
 import com.islam.backend.repositories.AccountRepository;
+import com.islam.backend.repositories.JummahArchiveRepository;
+import com.islam.backend.repositories.JummahAttendeeBatchRepository;
 import com.islam.backend.repositories.JummahRepository;
+import com.islam.backend.repositories.JummahTombstoneRepository;
 import com.islam.backend.security.user.AppUserDetails;
+import com.islam.backend.services.jummah.JummahChangeLog;
+import com.islam.backend.services.jummah.JummahConflictRetry;
+import com.islam.backend.services.jummah.JummahCreatedEvent;
+import com.islam.backend.services.jummah.JummahLocationIndex;
+import com.islam.backend.services.jummah.JummahNearbyCache;
 import com.islam.backend.services.jummah.JummahPublicService;
+import com.islam.backend.utils.BoundingBox;
+import com.islam.backend.utils.GeoHash;
+import com.islam.backend.utils.TimeWindow;
+import com.islam.backend.websocket.services.JummahLiveUpdateService;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import static com.islam.backend.utils.GeoMath.boundingBox;
 import static com.islam.backend.utils.GeoMath.haversineDistance;
 
 @Service
 @AllArgsConstructor
 public class JummahPublicServiceImpl implements JummahPublicService {
 
+    // Upper bound on the number of geohash range scans issued for one area query
+    private static final int MAX_GEOHASH_RANGES = 8;
+
+    // Nearest searches ignore Jummahs further away than this
+    private static final double MAX_NEAREST_DISTANCE_KM = 500;
+
+    private static final double INITIAL_NEAREST_RADIUS_KM = 5;
+
+    // Geohash cells of 5 characters are about 5 km wide, small enough to list every point in them
+    private static final int MIN_POINTS_GEOHASH_PRECISION = 5;
+
+    // Upper bound on the accounts added and removed in one bulk attendee request
+    private static final int MAX_BULK_ATTENDEES = 1000;
+
     private final JummahRepository jummahRepository;
+    private final JummahAttendeeBatchRepository jummahAttendeeBatchRepository;
     private final AccountRepository accountRepository;
     private final JummahMapperImpl jummahMapper;
+    private final JummahSnapshotMapper jummahSnapshotMapper;
+    private final JummahLocationIndex jummahLocationIndex;
+    private final JummahChangeLog jummahChangeLog;
+    private final JummahConflictRetry jummahConflictRetry;
+    private final JummahNearbyCache jummahNearbyCache;
+    private final JummahTombstoneRepository jummahTombstoneRepository;
+    private final JummahArchiveRepository jummahArchiveRepository;
+    private final JummahLiveUpdateService jummahLiveUpdateService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public JummahCreateResponse save(JummahCreateRequest request, AppUserDetails principal) {
-        JummahEntity entity = jummahMapper.toEntity(request, principal);
-        return jummahMapper.toCreateResponse(jummahRepository.save(entity));
+        JummahEntity entity = jummahChangeLog.save(jummahMapper.toEntity(request, principal), saved -> {
+            refreshLocation(saved.getId(), saved.getChangeVersion());
+            publishCreated(saved);
+        });
+        return jummahMapper.toCreateResponse(entity);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<JummahMapResponse> findAllJummahLocation() {
-        return jummahRepository.findAll().stream()
-                .filter(jummah -> jummah.getGeolocation() != null)
-                .map(jummahMapper::toMapResponse)
-                .toList();
+        return jummahRepository.findAllLocations();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public JummahLocationPageResponse findJummahLocationPage(UUID after, int size) {
+        Pageable page = PageRequest.of(0, size);
+        List<JummahMapResponse> locations = after == null
+                ? jummahRepository.findLocationPage(page)
+                : jummahRepository.findLocationPageAfter(after, page);
+
+        UUID nextCursor = locations.size() == size ? locations.get(size - 1).getId() : null;
+        return JummahLocationPageResponse.builder()
+                .locations(locations)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllJummahLocation(Consumer<JummahMapResponse> consumer) {
+        try (Stream<JummahMapResponse> locations = jummahRepository.streamAllLocations()) {
+            locations.forEach(consumer);
+        }
     }
 
     @Override
+    public JummahChangesResponse findChangesSince(long since, int limit) {
+        // Changes up to the committed version are final, later ones are left for the next sync
+        long upTo = jummahChangeLog.committedVersion();
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<JummahEntity> changed = jummahRepository.findChangedBetween(since, upTo, page);
+        List<JummahTombstoneEntity> tombstones = jummahTombstoneRepository
+                .findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersion(since, upTo, page);
+
+        // Merge both lists in change order and cut at the limit
+        List<JummahMapResponse> upserted = new ArrayList<>();
+        List<UUID> deleted = new ArrayList<>();
+        long version = Math.min(since, upTo);
+        int c = 0;
+        int t = 0;
+        while (c + t < limit && (c < changed.size() || t < tombstones.size())) {
+            if (t >= tombstones.size()
+                    || (c < changed.size() && changed.get(c).getChangeVersion() < tombstones.get(t).getChangeVersion())) {
+                JummahEntity jummah = changed.get(c++);
+                version = jummah.getChangeVersion();
+                if (jummah.getGeolocation() != null) {
+                    upserted.add(jummahMapper.toMapResponse(jummah));
+                }
+            } else {
+                JummahTombstoneEntity tombstone = tombstones.get(t++);
+                version = tombstone.getChangeVersion();
+                deleted.add(tombstone.getJummahId());
+            }
+        }
+
+        boolean hasMore = c < changed.size() || t < tombstones.size();
+        return JummahChangesResponse.builder()
+                .version(hasMore ? version : upTo)
+                .upserted(upserted)
+                .deleted(deleted)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public JummahDetailResponse findById(UUID id) {
-        JummahEntity entity = jummahRepository.findById(id)
+        JummahEntity entity = jummahRepository.findDetailById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Jummah", id));
+        jummahChangeLog.recordVersion(id, entity.getChangeVersion());
         return jummahMapper.toDetailResponse(entity);
     }
 
+    @Override
+    public List<String> findLiveTopics(BoundingBox viewport) {
+        return jummahLiveUpdateService.topicsFor(viewport);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public JummahArchiveResponse findArchivedById(UUID id) {
+        return jummahArchiveRepository.findWithAttendeesById(id)
+                .map(jummahMapper::toArchiveResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Archived Jummah", id));
+    }
+
+    @Override
+    public OptionalLong findCachedVersion(UUID id) {
+        return jummahChangeLog.versionOf(id);
+    }
+
+    @Override
+    public long findDatasetVersion() {
+        return jummahChangeLog.currentVersion();
+    }
+
     @Override
     public boolean updateJummah(UUID id, JummahCreateRequest request) {
+        // Each attempt re-reads the Jummah, so a retry applies the request on top of the concurrent change
+        return jummahConflictRetry.run("update", id, () -> applyUpdate(id, request));
+    }
+
+    private boolean applyUpdate(UUID id, JummahCreateRequest request) {
         JummahEntity entity = jummahRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Jummah", id));
 
@@ -73,73 +229,308 @@ public class JummahPublicServiceImpl implements JummahPublicService {
             entity.setGeolocation(new Geolocation(request.getLatitude(), request.getLongitude()));
         }
 
-        jummahRepository.save(entity);
+        jummahChangeLog.save(entity, saved -> refreshLocation(id, saved.getChangeVersion()));
         return true;
     }
 
     @Override
     public boolean addAttendee(UUID jummahId, UUID accountId) {
-        JummahEntity jummah = jummahRepository.findById(jummahId)
-                .orElseThrow(() -> new ResourceNotFoundException("Jummah", jummahId));
+        if (!accountRepository.existsById(accountId)) {
+            throw new ResourceNotFoundException("Account", accountId);
+        }
 
-        // Check if the account is already in the attendees list
-        if (jummah.getAttendees() != null && jummah.getAttendees().stream()
-                .anyMatch(account -> account.getId().equals(accountId))) {
-            return false; // Already an attendee
+        // A single conditional insert skips the organizer and existing attendees
+        int added;
+        try {
+            added = jummahConflictRetry.run("join", jummahId, () -> jummahChangeLog.update(jummahId,
+                    () -> adjustAttendeeCount(jummahId, jummahRepository.insertAttendee(jummahId, accountId)),
+                    version -> refreshLocation(jummahId, version)));
+        } catch (DataIntegrityViolationException e) {
+            return false; // Joined concurrently, rejected by the unique constraint
         }
+        if (added == 0 && !jummahRepository.existsById(jummahId)) {
+            throw new ResourceNotFoundException("Jummah", jummahId);
+        }
+        return added > 0;
+    }
 
-        // Check if the account is the organizer
-        if (jummah.getOrganizer() != null && jummah.getOrganizer().getId().equals(accountId)) {
-            return false; // Don't add the owner to attendees
+    @Override
+    public boolean removeAttendee(UUID jummahId, UUID accountId) {
+        int removed = jummahConflictRetry.run("leave", jummahId, () -> jummahChangeLog.update(jummahId,
+                () -> adjustAttendeeCount(jummahId, -jummahRepository.deleteAttendee(jummahId, accountId)),
+                version -> refreshLocation(jummahId, version)));
+        if (removed == 0 && !jummahRepository.existsById(jummahId)) {
+            throw new ResourceNotFoundException("Jummah", jummahId);
+        }
+        return removed > 0;
+    }
+
+    @Override
+    public JummahAttendeeBulkResponse updateAttendees(UUID jummahId, UUID organizerId, JummahAttendeeBulkRequest request) {
+        Set<UUID> toAdd = request.getAdd() != null ? new LinkedHashSet<>(request.getAdd()) : Set.of();
+        Set<UUID> toRemove = request.getRemove() != null ? new LinkedHashSet<>(request.getRemove()) : Set.of();
+        if (toAdd.size() + toRemove.size() > MAX_BULK_ATTENDEES) {
+            throw new BadRequestException("At most " + MAX_BULK_ATTENDEES + " attendees can be changed at once");
+        }
+        if (!Collections.disjoint(toAdd, toRemove)) {
+            throw new BadRequestException("An account cannot be both added and removed");
         }
 
-        // Fetch the account entity
-        AccountEntity accountEntity = accountRepository.findById(accountId)
-                .orElseThrow(() -> new ResourceNotFoundException("Account", accountId));
+        // Validate every account with one IN query
+        Set<UUID> requested = new LinkedHashSet<>(toAdd);
+        requested.addAll(toRemove);
+        Set<UUID> existing = requested.isEmpty() ? Set.of() : new HashSet<>(accountRepository.findExistingIds(requested));
 
-        // Initialize attendees list if null
-        if (jummah.getAttendees() == null) {
-            jummah.setAttendees(new ArrayList<>());
+        Map<UUID, AttendeeChangeStatus> results = new LinkedHashMap<>();
+        List<UUID> adds = new ArrayList<>();
+        List<UUID> removes = new ArrayList<>();
+        for (UUID accountId : requested) {
+            if (!existing.contains(accountId)) {
+                results.put(accountId, AttendeeChangeStatus.ACCOUNT_NOT_FOUND);
+            } else if (toRemove.contains(accountId)) {
+                removes.add(accountId);
+            } else if (accountId.equals(organizerId)) {
+                results.put(accountId, AttendeeChangeStatus.ORGANIZER);
+            } else {
+                adds.add(accountId);
+            }
         }
 
-        // Add the account to attendees
-        jummah.getAttendees().add(accountEntity);
+        // A retried batch overwrites the statuses of the failed attempt
+        jummahConflictRetry.run("bulk-attendees", jummahId, () -> jummahChangeLog.update(jummahId, () -> {
+            int[] inserted = jummahAttendeeBatchRepository.insertAll(jummahId, adds);
+            int[] deleted = jummahAttendeeBatchRepository.deleteAll(jummahId, removes);
+            int added = 0;
+            int removed = 0;
+            for (int i = 0; i < inserted.length; i++) {
+                boolean changed = inserted[i] != 0;
+                results.put(adds.get(i), changed ? AttendeeChangeStatus.ADDED : AttendeeChangeStatus.ALREADY_ATTENDING);
+                added += changed ? 1 : 0;
+            }
+            for (int i = 0; i < deleted.length; i++) {
+                boolean changed = deleted[i] != 0;
+                results.put(removes.get(i), changed ? AttendeeChangeStatus.REMOVED : AttendeeChangeStatus.NOT_ATTENDING);
+                removed += changed ? 1 : 0;
+            }
+            adjustAttendeeCount(jummahId, added - removed);
+            return added + removed;
+        }, version -> refreshLocation(jummahId, version)));
 
-        jummahRepository.save(jummah);
-        return true;
+        // Report in request order
+        Map<UUID, AttendeeChangeStatus> ordered = new LinkedHashMap<>();
+        requested.forEach(accountId -> ordered.put(accountId, results.get(accountId)));
+        return JummahAttendeeBulkResponse.builder()
+                .results(ordered)
+                .attendeeCount(jummahRepository.findAttendeeCountById(jummahId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Jummah", jummahId)))
+                .build();
     }
 
     @Override
-    public boolean removeAttendee(UUID jummahId, UUID accountId) {
-        JummahEntity jummah = jummahRepository.findById(jummahId)
-                .orElseThrow(() -> new ResourceNotFoundException("Jummah", jummahId));
-
-        // Check if the account to remove exists in the attendees list
-        if (jummah.getAttendees() == null || jummah.getAttendees().stream()
-                .noneMatch(account -> account.getId().equals(accountId))) {
-            return false; // Account not found in attendees
+    public boolean isOrganizer(UUID jummahId, UUID accountId) {
+        if (jummahRepository.existsByIdAndOrganizerId(jummahId, accountId)) {
+            return true;
         }
-
-        // Remove the account from attendees
-        jummah.getAttendees().removeIf(account -> account.getId().equals(accountId));
-        jummahRepository.save(jummah);
-        return true;
+        if (!jummahRepository.existsById(jummahId)) {
+            throw new ResourceNotFoundException("Jummah", jummahId);
+        }
+        return false;
     }
 
     @Override
     public void deleteById(UUID id) {
-        jummahRepository.deleteById(id);
+        jummahChangeLog.delete(id, version -> {
+            Optional<JummahMapResponse> previous = jummahLocationIndex.find(id);
+            jummahLocationIndex.remove(id);
+            previous.ifPresent(location -> {
+                jummahNearbyCache.invalidate(location.getLatitude(), location.getLongitude());
+                jummahLiveUpdateService.publishDelete(id, version, location);
+            });
+        });
     }
 
+    /**
+     * Searches of up to {@link JummahNearbyCache#MAX_CACHED_RADIUS_KM} are served from a cached
+     * superset around the {@link JummahNearbyCache#QUANTUM_DEGREES} grid square holding the location,
+     * cut to the exact circle around it. Cached results hold every indexed day and are narrowed to
+     * the window on the way out.
+     */
     @Override
-    public List<JummahMapResponse> findNearbyByRadius(Double latitude, Double longitude, Integer radius) {
-        return jummahRepository.findAll().stream()
-                .filter(jummah -> jummah.getGeolocation() != null)
-                .filter(jummah -> {
-                    double distance = haversineDistance(latitude, longitude, jummah.getGeolocation().getLatitude(), jummah.getGeolocation().getLongitude());
+    @Transactional(readOnly = true)
+    public List<JummahMapResponse> findNearbyByRadius(double latitude, double longitude, int radius, TimeWindow window) {
+        if (jummahLocationIndex.covers(window)) {
+            return jummahNearbyCache.get(latitude, longitude, radius, jummahLocationIndex::findWithinRadius)
+                    .stream()
+                    .filter(location -> window.contains(location.getDate(), location.getTime()))
+                    .toList();
+        }
+
+        // The location index is still loading or does not hold past days,
+        // only load the rows in the geohash cells covering the circle
+        return findWithinBoundingBox(boundingBox(latitude, longitude, radius), window).stream()
+                .filter(location -> {
+                    double distance = haversineDistance(latitude, longitude, location.getLatitude(), location.getLongitude());
                     return distance <= radius;
                 })
-                .map(jummahMapper::toMapResponse)
                 .toList();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<JummahNearestResponse> findNearest(double latitude, double longitude, int k) {
+        if (jummahLocationIndex.isReady()) {
+            return jummahLocationIndex.findNearest(latitude, longitude, k, MAX_NEAREST_DISTANCE_KM).stream()
+                    .map(neighbor -> jummahMapper.toNearestResponse(neighbor.value(), neighbor.distanceKm()))
+                    .toList();
+        }
+
+        // The location index is still loading, widen the search radius until k Jummahs are found
+        List<JummahNearestResponse> nearest = List.of();
+        for (double radius = INITIAL_NEAREST_RADIUS_KM; ; radius = Math.min(radius * 4, MAX_NEAREST_DISTANCE_KM)) {
+            double searchRadius = radius;
+            nearest = findWithinBoundingBox(boundingBox(latitude, longitude, searchRadius), TimeWindow.upcoming()).stream()
+                    .map(location -> jummahMapper.toNearestResponse(location,
+                            haversineDistance(latitude, longitude, location.getLatitude(), location.getLongitude())))
+                    .filter(location -> location.getDistanceKm() <= searchRadius)
+                    .sorted(Comparator.comparingDouble(JummahNearestResponse::getDistanceKm))
+                    .limit(k)
+                    .toList();
+            if (nearest.size() >= k || radius >= MAX_NEAREST_DISTANCE_KM) {
+                return nearest;
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public JummahMapViewResponse findInViewport(BoundingBox viewport, int zoom, TimeWindow window) {
+        if (jummahLocationIndex.covers(window)) {
+            return jummahLocationIndex.findInViewport(viewport, zoom, window);
+        }
+
+        // The location index is still loading or does not hold past days, serve the viewport from geohash range scans
+        List<String> prefixes = GeoHash.cover(viewport, MAX_GEOHASH_RANGES);
+        if (zoom > JummahLocationIndex.CLUSTER_MAX_ZOOM && prefixes.get(0).length() >= MIN_POINTS_GEOHASH_PRECISION) {
+            List<JummahMapResponse> points = findWithinBoundingBox(viewport, window);
+            if (points.size() <= JummahLocationIndex.MAX_VIEWPORT_POINTS) {
+                return JummahMapViewResponse.builder()
+                        .zoom(zoom)
+                        .clusters(List.of())
+                        .points(points)
+                        .build();
+            }
+        }
+
+        // Group each range one geohash character deeper, at most 32 clusters per range
+        List<JummahClusterResponse> clusters = new ArrayList<>();
+        for (String prefix : prefixes) {
+            BoundingBox range = viewport.clip(GeoHash.bounds(prefix));
+            clusters.addAll(jummahRepository.clusterWithinGeohashRange(
+                    prefix, GeoHash.upperBound(prefix),
+                    range.minLatitude(), range.minLongitude(), range.maxLatitude(), range.maxLongitude(),
+                    window.from().toLocalDate(), window.from().toLocalTime(),
+                    window.end().toLocalDate(), window.end().toLocalTime(),
+                    Math.min(prefix.length() + 1, GeoHash.MAX_PRECISION)));
+        }
+        return JummahMapViewResponse.builder()
+                .zoom(zoom)
+                .clusters(clusters)
+                .points(List.of())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<byte[]> findNearbySnapshot(double latitude, double longitude, int radius, TimeWindow window) {
+        if (jummahLocationIndex.covers(window)) {
+            return jummahLocationIndex.findWithinRadiusSnapshot(latitude, longitude, radius, window);
+        }
+        return List.of(
+                jummahSnapshotMapper.toHeader(JummahSnapshotMapper.NO_ZOOM),
+                jummahSnapshotMapper.toPointBlock(findNearbyByRadius(latitude, longitude, radius, window)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<byte[]> findInViewportSnapshot(BoundingBox viewport, int zoom, TimeWindow window) {
+        if (jummahLocationIndex.covers(window)) {
+            return jummahLocationIndex.findInViewportSnapshot(viewport, zoom, window);
+        }
+        JummahMapViewResponse view = findInViewport(viewport, zoom, window);
+        return List.of(
+                jummahSnapshotMapper.toHeader(view.getZoom()),
+                jummahSnapshotMapper.toClusterBlock(view.getClusters()),
+                jummahSnapshotMapper.toPointBlock(view.getPoints()));
+    }
+
+    /**
+     * Move the attendee counter by the number of join table rows just inserted (positive) or deleted (negative).
+     *
+     * @return The number of join table rows touched
+     */
+    private int adjustAttendeeCount(UUID jummahId, int delta) {
+        if (delta != 0) {
+            jummahRepository.addToAttendeeCount(jummahId, delta);
+        }
+        return Math.abs(delta);
+    }
+
+    /**
+     * Announce a new Jummah with a location so the accounts around it can be notified.
+     */
+    private void publishCreated(JummahEntity saved) {
+        if (saved.getGeolocation() == null) {
+            return;
+        }
+        UUID organizerId = saved.getOrganizer() != null ? saved.getOrganizer().getId() : null;
+        eventPublisher.publishEvent(new JummahCreatedEvent(jummahMapper.toMapResponse(saved), organizerId, saved.getGenderTarget()));
+    }
+
+    /**
+     * Move a changed Jummah in the location index, evict the cached nearby results around both
+     * its previous and its new location, and notify the live subscribers of both cells.
+     *
+     * Reads the Jummah's current location rather than trusting the caller's copy, so callbacks of
+     * changes that committed in a different order than they run still leave the latest state.
+     */
+    private void refreshLocation(UUID id, long version) {
+        Optional<JummahMapResponse> previous = jummahLocationIndex.find(id);
+        Optional<JummahMapResponse> current = jummahRepository.findLocationById(id);
+        if (current.isPresent()) {
+            jummahLocationIndex.index(current.get());
+        } else {
+            jummahLocationIndex.remove(id);
+        }
+        previous.ifPresent(location -> jummahNearbyCache.invalidate(location.getLatitude(), location.getLongitude()));
+        if (current.isPresent()) {
+            JummahMapResponse location = current.get();
+            jummahNearbyCache.invalidate(location.getLatitude(), location.getLongitude());
+            jummahLiveUpdateService.publishUpsert(location, version, previous.orElse(null));
+        } else {
+            previous.ifPresent(location -> jummahLiveUpdateService.publishDelete(id, version, location));
+        }
+    }
+
+    /**
+     * Load the Jummahs inside a bounding box and time window as a few geohash prefix range scans.
+     * Each covering cell is clipped to the box, which also splits boxes crossing the antimeridian.
+     * A coarse cell reaching across the gap of such a box is scanned whole, so rows are checked
+     * against the box once more.
+     */
+    private List<JummahMapResponse> findWithinBoundingBox(BoundingBox box, TimeWindow window) {
+        List<JummahMapResponse> candidates = new ArrayList<>();
+        for (String prefix : GeoHash.cover(box, MAX_GEOHASH_RANGES)) {
+            BoundingBox range = box.clip(GeoHash.bounds(prefix));
+            for (JummahMapResponse location : jummahRepository.findWithinGeohashRange(
+                    prefix, GeoHash.upperBound(prefix),
+                    range.minLatitude(), range.minLongitude(), range.maxLatitude(), range.maxLongitude(),
+                    window.from().toLocalDate(), window.from().toLocalTime(),
+                    window.end().toLocalDate(), window.end().toLocalTime())) {
+                if (box.contains(location.getLatitude(), location.getLongitude())) {
+                    candidates.add(location);
+                }
+            }
+        }
+        return candidates;
+    }
 }
@@ -1,18 +1,30 @@
 package com.islam.backend.services.jummah.impl;
 
 import com.islam.backend.domain.entities.JummahEntity;
+import com.islam.backend.domain.entities.value.Geolocation;
 import com.islam.backend.exceptions.ResourceNotFoundException;
 import com.islam.backend.repositories.JummahRepository;
 import com.islam.backend.services.jummah.JummahService;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.UUID;
 
+@Slf4j
 @Service
 @AllArgsConstructor
 public class JummahServiceImpl implements JummahService {
 
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
     private final JummahRepository jummahRepository;
 
 
@@ -21,4 +33,45 @@ public class JummahServiceImpl implements JummahService {
         return jummahRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Jummah", id));
     }
+
+    /**
+     * Runs before the location index is loaded, so geohash lookups see every row.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public int backfillGeohashes() {
+        int updated = 0;
+        List<JummahEntity> batch;
+        do {
+            // Saved rows drop out of the result, so always read the first page
+            batch = jummahRepository.findByGeolocationGeohashIsNull(PageRequest.of(0, BACKFILL_BATCH_SIZE));
+            for (JummahEntity jummah : batch) {
+                Geolocation geolocation = jummah.getGeolocation();
+                jummah.setGeolocation(new Geolocation(geolocation.getLatitude(), geolocation.getLongitude()));
+            }
+            jummahRepository.saveAll(batch);
+            updated += batch.size();
+        } while (batch.size() == BACKFILL_BATCH_SIZE);
+
+        if (updated > 0) {
+            log.info("Backfilled geohash for {} Jummahs", updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Runs before the location index is loaded, so indexed counts come from corrected rows.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public int backfillAttendeeCounts() {
+        int updated = jummahRepository.reconcileAttendeeCounts();
+        if (updated > 0) {
+            log.info("Backfilled attendee count for {} Jummahs", updated);
+        }
+        return updated;
+    }
 }
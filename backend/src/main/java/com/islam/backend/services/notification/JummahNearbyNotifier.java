@@ -0,0 +1,97 @@
+package com.islam.backend.services.notification;
+
+import com.islam.backend.services.account.AccountLocationIndex;
+import com.islam.backend.services.jummah.JummahCreatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notifies the accounts around a new Jummah.
+ *
+ * Matching runs on a dedicated worker thread fed by a bounded queue, never in the request thread:
+ * the recipients are found through {@link AccountLocationIndex} and handed to the
+ * {@link JummahNotificationSink} in batches. When the queue is full the event is dropped and counted.
+ */
+@Slf4j
+@Component
+public class JummahNearbyNotifier {
+
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    // Upper bound on the recipients handed to the sink in one call
+    private static final int SEND_BATCH_SIZE = 1000;
+
+    private final AccountLocationIndex accountLocationIndex;
+    private final JummahNotificationSink jummahNotificationSink;
+    private final double radiusKm;
+    private final ThreadPoolExecutor worker;
+    private final Counter dropped;
+
+    public JummahNearbyNotifier(AccountLocationIndex accountLocationIndex,
+                                JummahNotificationSink jummahNotificationSink,
+                                @Value("${jummah.notification.radius-km:10}") double radiusKm,
+                                MeterRegistry meterRegistry) {
+        this.accountLocationIndex = accountLocationIndex;
+        this.jummahNotificationSink = jummahNotificationSink;
+        this.radiusKm = radiusKm;
+        this.worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "jummah-notifier");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.dropped = meterRegistry.counter("jummah.notification.dropped");
+    }
+
+    @EventListener
+    public void onJummahCreated(JummahCreatedEvent event) {
+        try {
+            worker.execute(() -> notifyNearby(event));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            log.warn("Notification queue full, dropped notifications for Jummah {}", event.location().getId());
+        }
+    }
+
+    /**
+     * Find the accounts within the notification radius of a new Jummah and send them the notification.
+     *
+     * @param event The new Jummah
+     * @return The number of notified accounts
+     */
+    public int notifyNearby(JummahCreatedEvent event) {
+        List<UUID> recipients = accountLocationIndex
+                .findWithinRadius(event.location().getLatitude(), event.location().getLongitude(), radiusKm).stream()
+                .filter(subscriber -> event.genderTarget() == null || subscriber.gender() == event.genderTarget())
+                .map(AccountLocationIndex.Subscriber::accountId)
+                .filter(accountId -> !accountId.equals(event.organizerId()))
+                .toList();
+
+        for (int from = 0; from < recipients.size(); from += SEND_BATCH_SIZE) {
+            List<UUID> batch = recipients.subList(from, Math.min(from + SEND_BATCH_SIZE, recipients.size()));
+            try {
+                jummahNotificationSink.send(event.location(), batch);
+            } catch (RuntimeException e) {
+                log.error("Failed to notify {} accounts of Jummah {}", batch.size(), event.location().getId(), e);
+            }
+        }
+        return recipients.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+}
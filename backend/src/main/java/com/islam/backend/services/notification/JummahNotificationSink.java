@@ -0,0 +1,19 @@
+package com.islam.backend.services.notification;
+
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Delivers "new Jummah near you" notifications. Selected with {@code jummah.notification.sink}.
+ * Called from the notification worker thread, never from a request thread.
+ */
+public interface JummahNotificationSink {
+
+    /**
+     * @param jummah The new Jummah
+     * @param accountIds The accounts to notify, at most one batch
+     */
+    void send(JummahMapResponse jummah, List<UUID> accountIds);
+}
@@ -0,0 +1,40 @@
+package com.islam.backend.services.notification.impl;
+
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.services.notification.JummahNotificationSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the notifications of each account in memory, for tests and local development.
+ */
+@Component
+@ConditionalOnProperty(name = "jummah.notification.sink", havingValue = "memory")
+public class InMemoryJummahNotificationSink implements JummahNotificationSink {
+
+    private final Map<UUID, List<JummahMapResponse>> notifications = new ConcurrentHashMap<>();
+
+    @Override
+    public void send(JummahMapResponse jummah, List<UUID> accountIds) {
+        for (UUID accountId : accountIds) {
+            notifications.computeIfAbsent(accountId, id -> new CopyOnWriteArrayList<>()).add(jummah);
+        }
+    }
+
+    /**
+     * @return The Jummahs an account has been notified of, oldest first
+     */
+    public List<JummahMapResponse> notificationsOf(UUID accountId) {
+        return List.copyOf(notifications.getOrDefault(accountId, List.of()));
+    }
+
+    public void clear() {
+        notifications.clear();
+    }
+}
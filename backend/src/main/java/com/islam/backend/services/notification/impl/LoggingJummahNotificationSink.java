@@ -0,0 +1,21 @@
+package com.islam.backend.services.notification.impl;
+
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.services.notification.JummahNotificationSink;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jummah.notification.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingJummahNotificationSink implements JummahNotificationSink {
+
+    @Override
+    public void send(JummahMapResponse jummah, List<UUID> accountIds) {
+        log.info("Notifying {} accounts of new Jummah {}", accountIds.size(), jummah.getId());
+    }
+}
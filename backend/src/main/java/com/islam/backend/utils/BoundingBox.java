@@ -0,0 +1,66 @@
+package com.islam.backend.utils;
+
+/**
+ * An axis-aligned latitude/longitude box in degrees.
+ * When the box crosses the antimeridian, {@code minLongitude} is greater than {@code maxLongitude}.
+ */
+public record BoundingBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+
+    public boolean crossesAntimeridian() {
+        return minLongitude > maxLongitude;
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < minLatitude || latitude > maxLatitude) {
+            return false;
+        }
+        return crossesAntimeridian()
+                ? longitude >= minLongitude || longitude <= maxLongitude
+                : longitude >= minLongitude && longitude <= maxLongitude;
+    }
+
+    /**
+     * @param other A box, possibly crossing the antimeridian itself
+     * @return true if every point of the other box lies inside this box
+     */
+    public boolean contains(BoundingBox other) {
+        if (other.minLatitude() < minLatitude || other.maxLatitude() > maxLatitude) {
+            return false;
+        }
+        if (other.crossesAntimeridian()) {
+            return crossesAntimeridian() && other.minLongitude() >= minLongitude && other.maxLongitude() <= maxLongitude;
+        }
+        if (!crossesAntimeridian()) {
+            return other.minLongitude() >= minLongitude && other.maxLongitude() <= maxLongitude;
+        }
+        // Inside either the eastern or the western part
+        return other.minLongitude() >= minLongitude || other.maxLongitude() <= maxLongitude;
+    }
+
+    /**
+     * Clip a box that does not cross the antimeridian, such as a grid cell, to this box.
+     * The result never crosses the antimeridian: when the cell touches both halves of a box
+     * that does, the cell keeps its full longitude span.
+     *
+     * @param cell The box to clip
+     * @return The part of the cell inside this box
+     */
+    public BoundingBox clip(BoundingBox cell) {
+        double minLat = Math.max(cell.minLatitude(), minLatitude);
+        double maxLat = Math.min(cell.maxLatitude(), maxLatitude);
+        if (!crossesAntimeridian()) {
+            return new BoundingBox(minLat, Math.max(cell.minLongitude(), minLongitude),
+                    maxLat, Math.min(cell.maxLongitude(), maxLongitude));
+        }
+
+        boolean east = cell.maxLongitude() >= minLongitude;
+        boolean west = cell.minLongitude() <= maxLongitude;
+        if (east && !west) {
+            return new BoundingBox(minLat, Math.max(cell.minLongitude(), minLongitude), maxLat, cell.maxLongitude());
+        }
+        if (west && !east) {
+            return new BoundingBox(minLat, cell.minLongitude(), maxLat, Math.min(cell.maxLongitude(), maxLongitude));
+        }
+        return new BoundingBox(minLat, cell.minLongitude(), maxLat, cell.maxLongitude());
+    }
+}
@@ -0,0 +1,36 @@
+package com.islam.backend.utils;
+
+/**
+ * How {@link GeoMath#withinRadius} decides whether a point lies inside a search circle.
+ *
+ * Every mode returns exactly the points whose {@link GeoMath#haversineDistance} is within the
+ * radius: the approximations only settle the clear cases and defer to the haversine formula
+ * inside their error band, so the choice only affects speed.
+ */
+public enum DistanceMode {
+
+    /**
+     * Full haversine distance for every candidate.
+     */
+    HAVERSINE,
+
+    /**
+     * Flat-earth distance {@code hypot(dLat, dLon * cos(lat))} with the cosine of the search
+     * latitude computed once per query, so the per-point work has no trigonometry at all.
+     *
+     * For an angular radius {@code t} around latitude {@code p} the relative error is below
+     * {@code t * tan(|p| + t) + t^2}: about 0.02 % for 10 km at 45 degrees and 2 % for 50 km at
+     * 70 degrees. Points within that band of the radius are checked with haversine. Searches
+     * reaching past {@link GeoMath#FAST_MAX_LATITUDE} or wider than {@link GeoMath#FAST_MAX_RADIUS_KM}
+     * use haversine throughout.
+     */
+    EQUIRECTANGULAR,
+
+    /**
+     * Compares the haversine term {@code sin^2(dLat/2) + cos(lat1) cos(lat2) sin^2(dLon/2)},
+     * the squared chord length divided by four, against the precomputed {@code sin^2(r / 2R)}.
+     * This is exact at any latitude and skips {@code atan2} and both square roots; only points
+     * within rounding distance of the threshold are checked with haversine.
+     */
+    SQUARED_CHORD
+}
@@ -0,0 +1,55 @@
+package com.islam.backend.utils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registers keys under the grid cells covering an area, so the keys whose area may contain a
+ * point can be found by looking at one cell. Used to find cached search results affected by a
+ * changed location without scanning the whole cache.
+ *
+ * Not thread-safe; callers synchronize.
+ *
+ * @param <K> The registered key
+ */
+public class GeoCellRegistry<K> {
+
+    private final GeoGrid grid;
+    private final Map<Long, Set<K>> cells = new HashMap<>();
+
+    /**
+     * @param cellSizeDegrees The edge length of a grid cell in degrees
+     */
+    public GeoCellRegistry(double cellSizeDegrees) {
+        this.grid = new GeoGrid(cellSizeDegrees);
+    }
+
+    public void register(K key, BoundingBox area) {
+        grid.forEachCell(area, cell -> cells.computeIfAbsent(cell, k -> new HashSet<>()).add(key));
+    }
+
+    /**
+     * Remove a key; the area must be the one it was registered with.
+     */
+    public void unregister(K key, BoundingBox area) {
+        grid.forEachCell(area, cell -> {
+            Set<K> keys = cells.get(cell);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                cells.remove(cell);
+            }
+        });
+    }
+
+    /**
+     * @return The keys registered with an area that overlaps the cell containing the point
+     */
+    public Set<K> keysAt(double latitude, double longitude) {
+        return cells.getOrDefault(grid.cellKey(latitude, longitude), Set.of());
+    }
+
+    public void clear() {
+        cells.clear();
+    }
+}
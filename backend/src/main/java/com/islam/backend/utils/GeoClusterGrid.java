@@ -0,0 +1,164 @@
+package com.islam.backend.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hierarchy of pre-aggregated point clusters, one grid level per map zoom level.
+ *
+ * Level {@code z} uses cells of {@code 360 / 2^(z + 2)} degrees, i.e. a 4x4 grid per web map tile.
+ * Every cell keeps a running count and coordinate sum, so adding or removing a point only touches
+ * one cell per level and a viewport query returns at most one cluster per visible cell.
+ *
+ * Cells also keep the XOR of their member ids: once a cell is down to a single point, the XOR is
+ * that point's id, so single-point clusters can be resolved without storing member lists.
+ */
+public class GeoClusterGrid {
+
+    // Cells per tile edge is 2^CELLS_PER_TILE_SHIFT
+    private static final int CELLS_PER_TILE_SHIFT = 2;
+
+    private final int maxZoom;
+    private final GeoGrid[] grids;
+    private final List<Map<Long, CellAggregate>> levels;
+
+    /**
+     * A cluster of points: its centroid and how many points it contains.
+     * {@code singleId} is the id of the only point when {@code count} is 1, otherwise null.
+     */
+    public record Cluster(double latitude, double longitude, int count, UUID singleId) { }
+
+    private static final class CellAggregate {
+        private int count;
+        private double latitudeSum;
+        private double longitudeSum;
+        private long idXorMost;
+        private long idXorLeast;
+
+        private void toggle(UUID id) {
+            idXorMost ^= id.getMostSignificantBits();
+            idXorLeast ^= id.getLeastSignificantBits();
+        }
+
+        private void merge(CellAggregate other) {
+            count += other.count;
+            latitudeSum += other.latitudeSum;
+            longitudeSum += other.longitudeSum;
+            idXorMost ^= other.idXorMost;
+            idXorLeast ^= other.idXorLeast;
+        }
+
+        private Cluster toCluster() {
+            UUID singleId = count == 1 ? new UUID(idXorMost, idXorLeast) : null;
+            return new Cluster(latitudeSum / count, longitudeSum / count, count, singleId);
+        }
+    }
+
+    /**
+     * @param maxZoom The deepest zoom level to maintain clusters for
+     */
+    public GeoClusterGrid(int maxZoom) {
+        this.maxZoom = maxZoom;
+        this.grids = new GeoGrid[maxZoom + 1];
+        this.levels = new ArrayList<>(maxZoom + 1);
+        for (int zoom = 0; zoom <= maxZoom; zoom++) {
+            grids[zoom] = new GeoGrid(360 / Math.pow(2, zoom + CELLS_PER_TILE_SHIFT));
+            levels.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    public synchronized void add(UUID id, double latitude, double longitude) {
+        for (int zoom = 0; zoom <= maxZoom; zoom++) {
+            CellAggregate cell = levels.get(zoom)
+                    .computeIfAbsent(grids[zoom].cellKey(latitude, longitude), key -> new CellAggregate());
+            cell.count++;
+            cell.latitudeSum += latitude;
+            cell.longitudeSum += longitude;
+            cell.toggle(id);
+        }
+    }
+
+    public synchronized void remove(UUID id, double latitude, double longitude) {
+        for (int zoom = 0; zoom <= maxZoom; zoom++) {
+            long key = grids[zoom].cellKey(latitude, longitude);
+            CellAggregate cell = levels.get(zoom).get(key);
+            if (cell == null) {
+                continue;
+            }
+            if (--cell.count <= 0) {
+                levels.get(zoom).remove(key);
+            } else {
+                cell.latitudeSum -= latitude;
+                cell.longitudeSum -= longitude;
+                cell.toggle(id);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        levels.forEach(Map::clear);
+    }
+
+    /**
+     * The deepest zoom level at or above {@code zoom} whose cells overlapping the box do not
+     * exceed {@code maxCells}, so oversized viewports are answered with coarser clusters.
+     */
+    public int levelFor(BoundingBox box, int zoom, long maxCells) {
+        int level = Math.max(0, Math.min(zoom, maxZoom));
+        while (level > 0 && grids[level].cellCount(box) > maxCells) {
+            level--;
+        }
+        return level;
+    }
+
+    /**
+     * Find the clusters of one zoom level inside a bounding box.
+     *
+     * @param box The viewport
+     * @param zoom The zoom level, at most {@link #getMaxZoom()}
+     * @return The non-empty clusters whose cell overlaps the viewport
+     */
+    public List<Cluster> findWithinBoundingBox(BoundingBox box, int zoom) {
+        return findWithinBoundingBox(List.of(this), box, zoom);
+    }
+
+    /**
+     * Find the clusters of one zoom level inside a bounding box across several grids,
+     * merged cell by cell as if all their points were in one grid.
+     *
+     * @param clusterGrids Grids with the same maximum zoom, holding disjoint sets of points
+     * @param box The viewport
+     * @param zoom The zoom level, at most the grids' maximum zoom
+     * @return The non-empty clusters whose cell overlaps the viewport
+     */
+    public static List<Cluster> findWithinBoundingBox(Collection<GeoClusterGrid> clusterGrids, BoundingBox box, int zoom) {
+        Map<Long, CellAggregate> merged = new LinkedHashMap<>();
+        for (GeoClusterGrid clusterGrid : clusterGrids) {
+            clusterGrid.collect(box, zoom, merged);
+        }
+        List<Cluster> clusters = new ArrayList<>(merged.size());
+        for (CellAggregate cell : merged.values()) {
+            clusters.add(cell.toCluster());
+        }
+        return clusters;
+    }
+
+    private synchronized void collect(BoundingBox box, int zoom, Map<Long, CellAggregate> merged) {
+        Map<Long, CellAggregate> level = levels.get(zoom);
+        grids[zoom].forEachCell(box, key -> {
+            CellAggregate cell = level.get(key);
+            if (cell != null) {
+                merged.computeIfAbsent(key, k -> new CellAggregate()).merge(cell);
+            }
+        });
+    }
+}
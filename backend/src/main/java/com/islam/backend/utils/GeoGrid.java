@@ -0,0 +1,154 @@
+package com.islam.backend.utils;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Geometry of a fixed-size latitude/longitude grid covering the globe.
+ * Cells are addressed by a single {@code long} key; longitude columns wrap at the antimeridian.
+ */
+class GeoGrid {
+
+    private final double cellSizeDegrees;
+    private final int latitudeCells;
+    private final int longitudeCells;
+
+    GeoGrid(double cellSizeDegrees) {
+        if (cellSizeDegrees <= 0 || cellSizeDegrees > 180) {
+            throw new IllegalArgumentException("Cell size must be in (0, 180] degrees");
+        }
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.latitudeCells = (int) Math.ceil(180 / cellSizeDegrees);
+        this.longitudeCells = (int) Math.ceil(360 / cellSizeDegrees);
+    }
+
+    long cellKey(double latitude, double longitude) {
+        return (long) latitudeIndex(latitude) * longitudeCells + longitudeIndex(longitude);
+    }
+
+    /**
+     * The number of cells overlapping a bounding box.
+     */
+    long cellCount(BoundingBox box) {
+        return (long) (latitudeIndex(box.maxLatitude()) - latitudeIndex(box.minLatitude()) + 1) * longitudeSpan(box);
+    }
+
+    /**
+     * Visit the key of every cell overlapping a bounding box.
+     */
+    void forEachCell(BoundingBox box, LongConsumer action) {
+        int minLatIndex = latitudeIndex(box.minLatitude());
+        int maxLatIndex = latitudeIndex(box.maxLatitude());
+        int minLonIndex = longitudeIndex(box.minLongitude());
+        int lonSpan = longitudeSpan(box);
+
+        for (int latIndex = minLatIndex; latIndex <= maxLatIndex; latIndex++) {
+            for (int step = 0; step < lonSpan; step++) {
+                int lonIndex = (minLonIndex + step) % longitudeCells;
+                action.accept((long) latIndex * longitudeCells + lonIndex);
+            }
+        }
+    }
+
+    /**
+     * Visit the cells at Chebyshev distance {@code ring} from the cell containing a point.
+     * Across rings 0, 1, 2, ... every cell is visited at most once, wrapping at the antimeridian.
+     */
+    void forEachCellInRing(double latitude, double longitude, int ring, LongConsumer action) {
+        int latIndex = latitudeIndex(latitude);
+        int lonIndex = longitudeIndex(longitude);
+        if (ring == 0) {
+            action.accept((long) latIndex * longitudeCells + lonIndex);
+            return;
+        }
+
+        // Top and bottom rows of the ring, at most once around the globe
+        int columns = Math.min(2 * ring + 1, longitudeCells);
+        for (int row : new int[]{latIndex - ring, latIndex + ring}) {
+            if (row < 0 || row >= latitudeCells) {
+                continue;
+            }
+            for (int step = 0; step < columns; step++) {
+                action.accept((long) row * longitudeCells + Math.floorMod(lonIndex - ring + step, longitudeCells));
+            }
+        }
+
+        // Side columns, unless an earlier ring already wrapped around to them
+        for (int row = Math.max(0, latIndex - ring + 1); row <= Math.min(latitudeCells - 1, latIndex + ring - 1); row++) {
+            if (2 * ring <= longitudeCells) {
+                action.accept((long) row * longitudeCells + Math.floorMod(lonIndex + ring, longitudeCells));
+            }
+            if (2 * ring + 1 <= longitudeCells) {
+                action.accept((long) row * longitudeCells + Math.floorMod(lonIndex - ring, longitudeCells));
+            }
+        }
+    }
+
+    /**
+     * @return true if rings 0 to {@code ring} around a point cover every cell of the grid
+     */
+    boolean ringsCoverGrid(double latitude, double longitude, int ring) {
+        int latIndex = latitudeIndex(latitude);
+        return latIndex - ring <= 0 && latIndex + ring >= latitudeCells - 1 && 2 * ring + 1 >= longitudeCells;
+    }
+
+    /**
+     * The distance around a point that rings 0 to {@code ring} are guaranteed to cover:
+     * every point closer than this lies in a cell that has already been visited.
+     */
+    double coveredRadiusKm(double latitude, double longitude, int ring) {
+        int latIndex = latitudeIndex(latitude);
+        int lonIndex = longitudeIndex(longitude);
+        double south = (latIndex - ring) * cellSizeDegrees - 90;
+        double north = (latIndex + ring + 1) * cellSizeDegrees - 90;
+        boolean allLongitudes = 2 * ring + 1 >= longitudeCells;
+
+        double covered = Double.POSITIVE_INFINITY;
+        if (!(allLongitudes && north >= 90)) {
+            covered = Math.min(covered, GeoMath.EARTH_RADIUS_KM * Math.toRadians(Math.min(north, 90) - latitude));
+        }
+        if (!(allLongitudes && south <= -90)) {
+            covered = Math.min(covered, GeoMath.EARTH_RADIUS_KM * Math.toRadians(latitude - Math.max(south, -90)));
+        }
+        if (!allLongitudes) {
+            // Inverse of the longitude half-width of GeoMath.boundingBox
+            double west = (lonIndex - ring) * cellSizeDegrees - 180;
+            double east = (lonIndex + ring + 1) * cellSizeDegrees - 180;
+            double deltaLon = Math.toRadians(Math.min(90, Math.min(longitude - west, east - longitude)));
+            double sinRadius = Math.min(1, Math.sin(deltaLon) * Math.cos(Math.toRadians(latitude)));
+            covered = Math.min(covered, GeoMath.EARTH_RADIUS_KM * Math.asin(sinRadius));
+        }
+        return covered;
+    }
+
+    /**
+     * The area covered by a cell.
+     */
+    BoundingBox cellBounds(long key) {
+        int latIndex = (int) (key / longitudeCells);
+        int lonIndex = (int) (key % longitudeCells);
+        double minLatitude = latIndex * cellSizeDegrees - 90;
+        double minLongitude = lonIndex * cellSizeDegrees - 180;
+        return new BoundingBox(minLatitude, minLongitude,
+                Math.min(90, minLatitude + cellSizeDegrees), Math.min(180, minLongitude + cellSizeDegrees));
+    }
+
+    // Number of longitude columns to visit, walking eastwards and wrapping at the antimeridian
+    private int longitudeSpan(BoundingBox box) {
+        double lonWidth = box.crossesAntimeridian()
+                ? box.maxLongitude() + 360 - box.minLongitude()
+                : box.maxLongitude() - box.minLongitude();
+        int lonSpan = (int) Math.floor((box.minLongitude() + 180 + lonWidth) / cellSizeDegrees)
+                - (int) Math.floor((box.minLongitude() + 180) / cellSizeDegrees) + 1;
+        return Math.min(lonSpan, longitudeCells);
+    }
+
+    private int latitudeIndex(double latitude) {
+        int index = (int) Math.floor((latitude + 90) / cellSizeDegrees);
+        return Math.max(0, Math.min(latitudeCells - 1, index));
+    }
+
+    private int longitudeIndex(double longitude) {
+        int index = (int) Math.floor((longitude + 180) / cellSizeDegrees);
+        return Math.floorMod(index, longitudeCells);
+    }
+}
@@ -0,0 +1,365 @@
+package com.islam.backend.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory spatial index that buckets points into fixed-size latitude/longitude grid cells.
+ * A radius query only visits the cells overlapping the bounding box of the search circle,
+ * so its cost depends on the local density instead of the total number of points.
+ *
+ * Each cell stores its points as parallel coordinate arrays so queries can run the batch distance
+ * kernels of {@link GeoMath} over a whole cell. Cells are copy-on-write: reads are lock-free and
+ * see a consistent cell, writes are serialized so a point never lives in two cells at once.
+ * Because a write always replaces the cell, a snapshot derived from a cell can be cached on it
+ * and is dropped automatically by the next write.
+ *
+ * @param <T> The value stored with each point
+ */
+public class GeoGridIndex<T> {
+
+    private final GeoGrid grid;
+    private final DistanceMode distanceMode;
+
+    private final Map<Long, Cell<T>> cells = new ConcurrentHashMap<>();
+    private final Map<UUID, Entry<T>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * A point stored in the index.
+     */
+    public record Entry<T>(UUID id, double latitude, double longitude, T value) { }
+
+    /**
+     * A value found by a nearest-neighbour search and its distance from the search center.
+     */
+    public record Neighbor<T>(T value, double distanceKm) { }
+
+    // Whole cells are only served from snapshots for radii far from covering a hemisphere
+    private static final double MAX_WHOLE_CELL_RADIUS_KM = 5000;
+
+    // Immutable structure-of-arrays snapshot of the points in one grid cell
+    private static final class Cell<T> {
+        private final UUID[] ids;
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final Object[] values;
+
+        // Derived data built by a caller-provided function, see snapshot()
+        private volatile CachedSnapshot cachedSnapshot;
+
+        private Cell(UUID[] ids, double[] latitudes, double[] longitudes, Object[] values) {
+            this.ids = ids;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.values = values;
+        }
+
+        private static <T> Cell<T> empty() {
+            return new Cell<>(new UUID[0], new double[0], new double[0], new Object[0]);
+        }
+
+        private int size() {
+            return ids.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T value(int i) {
+            return (T) values[i];
+        }
+
+        @SuppressWarnings("unchecked")
+        private <S> S snapshot(Function<List<T>, S> snapshotter) {
+            CachedSnapshot cached = cachedSnapshot;
+            if (cached == null || cached.snapshotter() != snapshotter) {
+                List<T> cellValues = new ArrayList<>(size());
+                for (int i = 0; i < size(); i++) {
+                    cellValues.add(value(i));
+                }
+                cached = new CachedSnapshot(snapshotter, snapshotter.apply(cellValues));
+                cachedSnapshot = cached;
+            }
+            return (S) cached.value();
+        }
+
+        private Cell<T> with(Entry<T> entry) {
+            int n = ids.length;
+            Cell<T> cell = new Cell<>(Arrays.copyOf(ids, n + 1), Arrays.copyOf(latitudes, n + 1),
+                    Arrays.copyOf(longitudes, n + 1), Arrays.copyOf(values, n + 1));
+            cell.ids[n] = entry.id();
+            cell.latitudes[n] = entry.latitude();
+            cell.longitudes[n] = entry.longitude();
+            cell.values[n] = entry.value();
+            return cell;
+        }
+
+        // Null once the last point is removed
+        private Cell<T> without(UUID id) {
+            int index = Arrays.asList(ids).indexOf(id);
+            if (index < 0) {
+                return this;
+            }
+            int n = ids.length - 1;
+            if (n == 0) {
+                return null;
+            }
+            // Move the last point into the freed slot
+            Cell<T> cell = new Cell<>(Arrays.copyOf(ids, n), Arrays.copyOf(latitudes, n),
+                    Arrays.copyOf(longitudes, n), Arrays.copyOf(values, n));
+            if (index < n) {
+                cell.ids[index] = ids[n];
+                cell.latitudes[index] = latitudes[n];
+                cell.longitudes[index] = longitudes[n];
+                cell.values[index] = values[n];
+            }
+            return cell;
+        }
+    }
+
+    private record CachedSnapshot(Object snapshotter, Object value) { }
+
+    /**
+     * @param cellSizeDegrees The edge length of a grid cell in degrees
+     */
+    public GeoGridIndex(double cellSizeDegrees) {
+        this(cellSizeDegrees, DistanceMode.HAVERSINE);
+    }
+
+    /**
+     * @param cellSizeDegrees The edge length of a grid cell in degrees
+     * @param distanceMode The approximation radius queries try before haversine
+     */
+    public GeoGridIndex(double cellSizeDegrees, DistanceMode distanceMode) {
+        this.grid = new GeoGrid(cellSizeDegrees);
+        this.distanceMode = distanceMode;
+    }
+
+    /**
+     * Insert a point, or move and replace it if the id is already indexed.
+     */
+    public synchronized void put(UUID id, double latitude, double longitude, T value) {
+        Entry<T> entry = new Entry<>(id, latitude, longitude, value);
+        Entry<T> previous = entries.put(id, entry);
+        if (previous != null) {
+            removeFromCell(previous);
+        }
+        cells.compute(grid.cellKey(latitude, longitude),
+                (key, cell) -> (cell == null ? Cell.<T>empty() : cell).with(entry));
+    }
+
+    /**
+     * Remove a point from the index.
+     *
+     * @return true if the point was indexed
+     */
+    public synchronized boolean remove(UUID id) {
+        Entry<T> previous = entries.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        removeFromCell(previous);
+        return true;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        cells.clear();
+    }
+
+    public Optional<Entry<T>> get(UUID id) {
+        return Optional.ofNullable(entries.get(id));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Find the values of all points within a radius of a location.
+     *
+     * @param latitude Latitude of the search center
+     * @param longitude Longitude of the search center
+     * @param radiusKm The search radius in kilometers
+     * @return The matching values, in no particular order
+     */
+    public List<T> findWithinRadius(double latitude, double longitude, double radiusKm) {
+        List<T> result = new ArrayList<>();
+        BoundingBox box = GeoMath.boundingBox(latitude, longitude, radiusKm);
+        forEachCell(box, cell -> addWithinRadius(cell, latitude, longitude, radiusKm, result::add));
+        return result;
+    }
+
+    /**
+     * Find the points within a radius of a location, handing over the cells that lie entirely
+     * inside the circle as a whole. A whole cell is passed as the snapshot {@code snapshotter}
+     * builds from its values; the snapshot is cached on the cell until the cell next changes,
+     * so repeated queries reuse it as long as the same snapshotter instance is passed.
+     *
+     * @param latitude Latitude of the search center
+     * @param longitude Longitude of the search center
+     * @param radiusKm The search radius in kilometers
+     * @param snapshotter Builds the snapshot of a whole cell
+     * @param wholeCells Receives the snapshots of the cells inside the circle
+     * @param edgePoints Receives the matching values of the cells crossing the circle
+     */
+    public <S> void findWithinRadius(double latitude, double longitude, double radiusKm,
+                                     Function<List<T>, S> snapshotter, Consumer<S> wholeCells, Consumer<T> edgePoints) {
+        BoundingBox box = GeoMath.boundingBox(latitude, longitude, radiusKm);
+        grid.forEachCell(box, key -> {
+            Cell<T> cell = cells.get(key);
+            if (cell == null) {
+                return;
+            }
+            if (cellInsideCircle(grid.cellBounds(key), latitude, longitude, radiusKm)) {
+                wholeCells.accept(cell.snapshot(snapshotter));
+            } else {
+                addWithinRadius(cell, latitude, longitude, radiusKm, edgePoints);
+            }
+        });
+    }
+
+    /**
+     * Find the k points closest to a location.
+     * Cells are visited in rings of growing size around the location while a bounded max-heap keeps
+     * the k best candidates; the search stops as soon as no unvisited cell can hold a closer point,
+     * so the cost depends on k and the local density rather than on a guessed radius.
+     *
+     * @param latitude Latitude of the search center
+     * @param longitude Longitude of the search center
+     * @param k The number of points to return
+     * @param maxDistanceKm Points further than this are ignored
+     * @return Up to k values, closest first
+     */
+    public List<Neighbor<T>> findNearest(double latitude, double longitude, int k, double maxDistanceKm) {
+        if (k <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Neighbor<T>> nearest = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble((Neighbor<T> neighbor) -> neighbor.distanceKm()).reversed());
+
+        for (int ring = 0; ; ring++) {
+            grid.forEachCellInRing(latitude, longitude, ring, key -> {
+                Cell<T> cell = cells.get(key);
+                if (cell == null) {
+                    return;
+                }
+                double[] distances = new double[cell.size()];
+                GeoMath.haversineDistances(latitude, longitude, cell.latitudes, cell.longitudes, cell.size(), distances);
+                for (int i = 0; i < distances.length; i++) {
+                    double distance = distances[i];
+                    if (distance > maxDistanceKm || (nearest.size() == k && distance >= nearest.peek().distanceKm())) {
+                        continue;
+                    }
+                    nearest.offer(new Neighbor<>(cell.value(i), distance));
+                    if (nearest.size() > k) {
+                        nearest.poll();
+                    }
+                }
+            });
+
+            double covered = grid.coveredRadiusKm(latitude, longitude, ring);
+            if (covered > maxDistanceKm
+                    || (nearest.size() == k && nearest.peek().distanceKm() < covered)
+                    || grid.ringsCoverGrid(latitude, longitude, ring)) {
+                break;
+            }
+        }
+
+        List<Neighbor<T>> result = new ArrayList<>(nearest);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return result;
+    }
+
+    /**
+     * Find the values of all points inside a bounding box.
+     *
+     * @param box The area to search
+     * @return The matching values, in no particular order
+     */
+    public List<T> findWithinBoundingBox(BoundingBox box) {
+        List<T> result = new ArrayList<>();
+        forEachCell(box, cell -> {
+            for (int i = 0; i < cell.size(); i++) {
+                if (box.contains(cell.latitudes[i], cell.longitudes[i])) {
+                    result.add(cell.value(i));
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Find the points inside a bounding box, handing over the cells that lie entirely inside it
+     * as cached snapshots, like {@link #findWithinRadius(double, double, double, Function, Consumer, Consumer)}.
+     *
+     * @param box The area to search
+     * @param snapshotter Builds the snapshot of a whole cell
+     * @param wholeCells Receives the snapshots of the cells inside the box
+     * @param edgePoints Receives the matching values of the cells crossing the box edge
+     */
+    public <S> void findWithinBoundingBox(BoundingBox box, Function<List<T>, S> snapshotter,
+                                          Consumer<S> wholeCells, Consumer<T> edgePoints) {
+        grid.forEachCell(box, key -> {
+            Cell<T> cell = cells.get(key);
+            if (cell == null) {
+                return;
+            }
+            if (box.contains(grid.cellBounds(key))) {
+                wholeCells.accept(cell.snapshot(snapshotter));
+                return;
+            }
+            for (int i = 0; i < cell.size(); i++) {
+                if (box.contains(cell.latitudes[i], cell.longitudes[i])) {
+                    edgePoints.accept(cell.value(i));
+                }
+            }
+        });
+    }
+
+    private void addWithinRadius(Cell<T> cell, double latitude, double longitude, double radiusKm, Consumer<T> action) {
+        long[] matches = new long[(cell.size() + 63) >>> 6];
+        if (GeoMath.withinRadius(latitude, longitude, radiusKm, distanceMode,
+                cell.latitudes, cell.longitudes, cell.size(), matches) == 0) {
+            return;
+        }
+        for (int word = 0; word < matches.length; word++) {
+            for (long bits = matches[word]; bits != 0; bits &= bits - 1) {
+                action.accept(cell.value((word << 6) + Long.numberOfTrailingZeros(bits)));
+            }
+        }
+    }
+
+    // The point of a small cell farthest from the center is one of its corners
+    private static boolean cellInsideCircle(BoundingBox bounds, double latitude, double longitude, double radiusKm) {
+        if (radiusKm > MAX_WHOLE_CELL_RADIUS_KM) {
+            return false;
+        }
+        double limit = radiusKm * (1 - 1e-9);
+        return GeoMath.haversineDistance(latitude, longitude, bounds.minLatitude(), bounds.minLongitude()) <= limit
+                && GeoMath.haversineDistance(latitude, longitude, bounds.minLatitude(), bounds.maxLongitude()) <= limit
+                && GeoMath.haversineDistance(latitude, longitude, bounds.maxLatitude(), bounds.minLongitude()) <= limit
+                && GeoMath.haversineDistance(latitude, longitude, bounds.maxLatitude(), bounds.maxLongitude()) <= limit;
+    }
+
+    private void forEachCell(BoundingBox box, Consumer<Cell<T>> action) {
+        grid.forEachCell(box, key -> {
+            Cell<T> cell = cells.get(key);
+            if (cell != null) {
+                action.accept(cell);
+            }
+        });
+    }
+
+    private void removeFromCell(Entry<T> entry) {
+        cells.computeIfPresent(grid.cellKey(entry.latitude(), entry.longitude()),
+                (key, cell) -> cell.without(entry.id()));
+    }
+}
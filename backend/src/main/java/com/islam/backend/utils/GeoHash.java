@@ -0,0 +1,196 @@
+package com.islam.backend.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Geohash encoding of latitude/longitude pairs.
+ *
+ * A geohash interleaves longitude and latitude bits into a base32 string, so points that share a
+ * prefix lie in the same cell and every cell is a contiguous, lexicographically ordered range.
+ * This lets a plain B-tree index on the geohash column answer area queries with a few range scans.
+ */
+public class GeoHash {
+
+    /**
+     * Maximum precision; 12 characters identify a cell of a few centimeters.
+     */
+    public static final int MAX_PRECISION = 12;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    // Sorts after every geohash of up to MAX_PRECISION characters
+    private static final String UPPER_SENTINEL = "z".repeat(MAX_PRECISION + 1);
+
+    /**
+     * Encode a point as a geohash.
+     *
+     * @param latitude The latitude in degrees
+     * @param longitude The longitude in degrees
+     * @param precision The number of characters, from 1 to {@link #MAX_PRECISION}
+     * @return The geohash of the cell containing the point
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_PRECISION);
+        }
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int index = 0;
+
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    index = (index << 1) | 1;
+                    minLon = mid;
+                } else {
+                    index = index << 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    index = (index << 1) | 1;
+                    minLat = mid;
+                } else {
+                    index = index << 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(index));
+                bit = 0;
+                index = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Decode the cell of a geohash.
+     *
+     * @param hash The geohash
+     * @return The bounds of the cell
+     */
+    public static BoundingBox bounds(String hash) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        boolean evenBit = true;
+
+        for (int i = 0; i < hash.length(); i++) {
+            int index = BASE32.indexOf(hash.charAt(i));
+            if (index < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + hash);
+            }
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = ((index >> bit) & 1) == 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) minLon = mid; else maxLon = mid;
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) minLat = mid; else maxLat = mid;
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new BoundingBox(minLat, minLon, maxLat, maxLon);
+    }
+
+    /**
+     * The exclusive upper bound of the range of geohashes starting with a prefix,
+     * so that {@code prefix <= hash < upperBound(prefix)} selects exactly that cell.
+     *
+     * @param prefix The geohash prefix
+     * @return The smallest string sorting after every geohash with the prefix
+     */
+    public static String upperBound(String prefix) {
+        StringBuilder bound = new StringBuilder(prefix);
+        for (int i = bound.length() - 1; i >= 0; i--) {
+            int index = BASE32.indexOf(bound.charAt(i));
+            if (index < BASE32.length() - 1) {
+                bound.setCharAt(i, BASE32.charAt(index + 1));
+                bound.setLength(i + 1);
+                return bound.toString();
+            }
+        }
+        return UPPER_SENTINEL;
+    }
+
+    /**
+     * Find the geohash cells covering a bounding box, using the finest precision
+     * that needs at most {@code maxCells} cells (or a single character if none does).
+     *
+     * @param box The area to cover
+     * @param maxCells The maximum number of cells to return
+     * @return The covering geohash prefixes
+     */
+    public static List<String> cover(BoundingBox box, int maxCells) {
+        List<String> best = cellsAt(box, 1);
+        for (int precision = 2; precision <= MAX_PRECISION; precision++) {
+            if (cellCount(box, precision) > maxCells) {
+                break;
+            }
+            best = cellsAt(box, precision);
+        }
+        return best;
+    }
+
+    // Walks the covered cells by index and encodes each cell's center, wrapping around the antimeridian
+    private static List<String> cellsAt(BoundingBox box, int precision) {
+        double cellHeight = cellHeight(precision);
+        double cellWidth = cellWidth(precision);
+        int rows = (int) Math.round(180 / cellHeight);
+        int columns = (int) Math.round(360 / cellWidth);
+        Set<String> cells = new LinkedHashSet<>();
+
+        int firstRow = Math.min((int) Math.floor((box.minLatitude() + 90) / cellHeight), rows - 1);
+        int lastRow = Math.min((int) Math.floor((box.maxLatitude() + 90) / cellHeight), rows - 1);
+        int firstColumn = Math.min((int) Math.floor((box.minLongitude() + 180) / cellWidth), columns - 1);
+        int lonSteps = longitudeSteps(box, cellWidth);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            double latitude = -90 + (row + 0.5) * cellHeight;
+            for (int j = 0; j <= lonSteps; j++) {
+                double longitude = -180 + (Math.floorMod(firstColumn + j, columns) + 0.5) * cellWidth;
+                cells.add(encode(latitude, longitude, precision));
+            }
+        }
+        return new ArrayList<>(cells);
+    }
+
+    private static long cellCount(BoundingBox box, int precision) {
+        double cellHeight = cellHeight(precision);
+        long latCells = (long) Math.floor((box.maxLatitude() + 90) / cellHeight)
+                - (long) Math.floor((box.minLatitude() + 90) / cellHeight) + 1;
+        return latCells * (longitudeSteps(box, cellWidth(precision)) + 1L);
+    }
+
+    private static int longitudeSteps(BoundingBox box, double cellWidth) {
+        double start = box.minLongitude() + 180;
+        int steps = (int) Math.floor((start + longitudeWidth(box)) / cellWidth) - (int) Math.floor(start / cellWidth);
+        return Math.min(steps, (int) Math.ceil(360 / cellWidth) - 1);
+    }
+
+    private static double longitudeWidth(BoundingBox box) {
+        return box.crossesAntimeridian()
+                ? box.maxLongitude() + 360 - box.minLongitude()
+                : box.maxLongitude() - box.minLongitude();
+    }
+
+    private static double cellHeight(int precision) {
+        return 180 / Math.pow(2, (5 * precision) / 2);
+    }
+
+    private static double cellWidth(int precision) {
+        return 360 / Math.pow(2, (5 * precision + 1) / 2);
+    }
+}
@@ -1,7 +1,27 @@
 package com.islam.backend.utils;
 
+import java.util.Arrays;
+
 public class GeoMath {
 
+    /**
+     * Mean radius of the earth in kilometers.
+     */
+    public static final double EARTH_RADIUS_KM = 6371;
+
+    /**
+     * Searches reaching beyond this latitude never use {@link DistanceMode#EQUIRECTANGULAR}.
+     */
+    public static final double FAST_MAX_LATITUDE = 70;
+
+    /**
+     * Searches wider than this never use {@link DistanceMode#EQUIRECTANGULAR}.
+     */
+    public static final double FAST_MAX_RADIUS_KM = 100;
+
+    // Relative band around the squared-chord threshold that is re-checked with haversine
+    private static final double CHORD_ROUNDING_BAND = 1e-9;
+
     /**
      * Calculate the distance between two geographical points using the Haversine formula.
      *
@@ -12,13 +32,185 @@ public class GeoMath {
      * @return Distance in kilometers
      */
     public static double haversineDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // Radius of the earth in km
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        double lat1Radians = Math.toRadians(lat1);
+        return haversine(lat1Radians, Math.cos(lat1Radians), lon1, lat2, lon2);
+    }
+
+    /**
+     * Calculate the Haversine distance from one point to a batch of points.
+     * The batch is passed as parallel latitude/longitude arrays and the trigonometry of the
+     * query point is computed once, so the loop only does the per-point work.
+     *
+     * @param latitude Latitude of the query point
+     * @param longitude Longitude of the query point
+     * @param latitudes Latitudes of the batch
+     * @param longitudes Longitudes of the batch
+     * @param count The number of points to read from the arrays
+     * @param distances Receives the distance in kilometers of each point
+     */
+    public static void haversineDistances(double latitude, double longitude,
+                                          double[] latitudes, double[] longitudes, int count, double[] distances) {
+        double latRadians = Math.toRadians(latitude);
+        double cosLat = Math.cos(latRadians);
+        for (int i = 0; i < count; i++) {
+            distances[i] = haversine(latRadians, cosLat, longitude, latitudes[i], longitudes[i]);
+        }
+    }
+
+    /**
+     * Mark the points of a batch that lie within a radius of a query point.
+     * Points whose latitude alone puts them out of range are rejected before any trigonometry,
+     * the rest are compared with exactly the same distance as {@link #haversineDistance}.
+     *
+     * @param latitude Latitude of the query point
+     * @param longitude Longitude of the query point
+     * @param radiusKm The radius in kilometers
+     * @param latitudes Latitudes of the batch
+     * @param longitudes Longitudes of the batch
+     * @param count The number of points to read from the arrays
+     * @param matches Bitmap of at least {@code (count + 63) / 64} words; bit i is set when point i is in range
+     * @return The number of points in range
+     */
+    public static int withinRadius(double latitude, double longitude, double radiusKm,
+                                   double[] latitudes, double[] longitudes, int count, long[] matches) {
+        return withinRadius(latitude, longitude, radiusKm, DistanceMode.HAVERSINE, latitudes, longitudes, count, matches);
+    }
+
+    /**
+     * Mark the points of a batch that lie within a radius of a query point, settling clear cases
+     * with a cheaper approximation. The result is identical for every {@link DistanceMode}.
+     *
+     * @param latitude Latitude of the query point
+     * @param longitude Longitude of the query point
+     * @param radiusKm The radius in kilometers
+     * @param mode The approximation to try before haversine
+     * @param latitudes Latitudes of the batch
+     * @param longitudes Longitudes of the batch
+     * @param count The number of points to read from the arrays
+     * @param matches Bitmap of at least {@code (count + 63) / 64} words; bit i is set when point i is in range
+     * @return The number of points in range
+     */
+    public static int withinRadius(double latitude, double longitude, double radiusKm, DistanceMode mode,
+                                   double[] latitudes, double[] longitudes, int count, long[] matches) {
+        double latRadians = Math.toRadians(latitude);
+        double cosLat = Math.cos(latRadians);
+        double angularRadius = radiusKm / EARTH_RADIUS_KM;
+        // A point is at least as far as its latitude difference along a meridian
+        double maxLatDelta = Math.toDegrees(angularRadius) + 1e-9;
+        Arrays.fill(matches, 0, (count + 63) >>> 6, 0L);
+
+        if (mode == DistanceMode.EQUIRECTANGULAR
+                && (Math.abs(latitude) + maxLatDelta > FAST_MAX_LATITUDE || radiusKm > FAST_MAX_RADIUS_KM)) {
+            mode = DistanceMode.HAVERSINE;
+        }
+
+        // Squared distances in degrees of latitude that are certainly inside or outside the circle
+        double error = angularRadius * Math.tan(Math.toRadians(Math.abs(latitude)) + angularRadius)
+                + angularRadius * angularRadius;
+        double radiusDegrees = Math.toDegrees(angularRadius);
+        double surelyInside = square(radiusDegrees * Math.max(0, 1 - 2 * error));
+        double surelyOutside = square(radiusDegrees * (1 + 2 * error));
+
+        // sin^2(r / 2R), the haversine term of a point exactly on the circle
+        double chordThreshold = square(Math.sin(Math.min(angularRadius, Math.PI) / 2));
+        double chordBand = Math.max(chordThreshold, Double.MIN_NORMAL) * CHORD_ROUNDING_BAND;
+
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            double latDelta = latitudes[i] - latitude;
+            if (Math.abs(latDelta) > maxLatDelta) {
+                continue;
+            }
+
+            boolean inside;
+            if (mode == DistanceMode.EQUIRECTANGULAR) {
+                double lonDelta = normalizeLongitudeDelta(longitudes[i] - longitude) * cosLat;
+                double flat = latDelta * latDelta + lonDelta * lonDelta;
+                if (flat <= surelyInside) {
+                    inside = true;
+                } else if (flat >= surelyOutside) {
+                    inside = false;
+                } else {
+                    inside = haversine(latRadians, cosLat, longitude, latitudes[i], longitudes[i]) <= radiusKm;
+                }
+            } else if (mode == DistanceMode.SQUARED_CHORD) {
+                double lat2Radians = Math.toRadians(latitudes[i]);
+                double sinLat = Math.sin((lat2Radians - latRadians) / 2);
+                double sinLon = Math.sin(Math.toRadians(longitudes[i] - longitude) / 2);
+                double a = sinLat * sinLat + cosLat * Math.cos(lat2Radians) * sinLon * sinLon;
+                inside = Math.abs(a - chordThreshold) > chordBand
+                        ? a < chordThreshold
+                        : haversine(latRadians, cosLat, longitude, latitudes[i], longitudes[i]) <= radiusKm;
+            } else {
+                inside = haversine(latRadians, cosLat, longitude, latitudes[i], longitudes[i]) <= radiusKm;
+            }
+
+            if (inside) {
+                matches[i >>> 6] |= 1L << i;
+                found++;
+            }
+        }
+        return found;
+    }
+
+    // Shared by the scalar and batch entry points so both return bit-identical distances
+    private static double haversine(double lat1Radians, double cosLat1, double lon1, double lat2, double lon2) {
+        double lat2Radians = Math.toRadians(lat2);
+        double sinLat = Math.sin((lat2Radians - lat1Radians) / 2);
+        double sinLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double a = sinLat * sinLat + cosLat1 * Math.cos(lat2Radians) * sinLon * sinLon;
         double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c; // Distance in km
+        return EARTH_RADIUS_KM * c; // Distance in km
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+
+    // Longitude difference in (-180, 180], the short way around the globe
+    private static double normalizeLongitudeDelta(double lonDelta) {
+        if (lonDelta > 180) {
+            return lonDelta - 360;
+        }
+        if (lonDelta <= -180) {
+            return lonDelta + 360;
+        }
+        return lonDelta;
+    }
+
+    /**
+     * Calculate the smallest latitude/longitude box that contains the circle around a point.
+     * Longitudes are normalized to [-180, 180], so a box crossing the antimeridian has
+     * {@code minLongitude > maxLongitude}. A circle reaching a pole spans every longitude.
+     *
+     * @param latitude Latitude of the center
+     * @param longitude Longitude of the center
+     * @param radiusKm Radius of the circle in kilometers
+     * @return The bounding box of the circle
+     */
+    public static BoundingBox boundingBox(double latitude, double longitude, double radiusKm) {
+        double angularRadius = radiusKm / EARTH_RADIUS_KM;
+        double minLat = latitude - Math.toDegrees(angularRadius);
+        double maxLat = latitude + Math.toDegrees(angularRadius);
+
+        if (minLat <= -90 || maxLat >= 90) {
+            return new BoundingBox(Math.max(minLat, -90), -180, Math.min(maxLat, 90), 180);
+        }
+
+        double sinDeltaLon = Math.sin(angularRadius) / Math.cos(Math.toRadians(latitude));
+        if (angularRadius >= Math.PI / 2 || sinDeltaLon >= 1) {
+            return new BoundingBox(minLat, -180, maxLat, 180);
+        }
+
+        double deltaLon = Math.toDegrees(Math.asin(sinDeltaLon));
+        double minLon = longitude - deltaLon;
+        double maxLon = longitude + deltaLon;
+        if (minLon < -180) {
+            minLon += 360;
+        }
+        if (maxLon > 180) {
+            maxLon -= 360;
+        }
+        return new BoundingBox(minLat, minLon, maxLat, maxLon);
     }
 }
@@ -0,0 +1,34 @@
+package com.islam.backend.utils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A range of event start times. {@code from} is inclusive, {@code to} is exclusive,
+ * and a null {@code to} leaves the window open-ended.
+ */
+public record TimeWindow(LocalDateTime from, LocalDateTime to) {
+
+    // Stands in for an open end in database queries
+    private static final LocalDateTime OPEN_END = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    /**
+     * Every event from the start of today onwards; today's events stay listed after they begin.
+     */
+    public static TimeWindow upcoming() {
+        return new TimeWindow(LocalDate.now().atStartOfDay(), null);
+    }
+
+    public boolean contains(LocalDate date, LocalTime time) {
+        LocalDateTime start = LocalDateTime.of(date, time);
+        return !start.isBefore(from) && (to == null || start.isBefore(to));
+    }
+
+    /**
+     * @return The exclusive end of the window, or a far future date if it is open-ended
+     */
+    public LocalDateTime end() {
+        return to == null ? OPEN_END : to;
+    }
+}
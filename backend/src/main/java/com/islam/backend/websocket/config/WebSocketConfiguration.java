@@ -12,7 +12,8 @@ public class WebSocketConfiguration implements WebSocketMessageBrokerConfigurer
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config){
-        config.enableSimpleBroker("/topic"); // For broadcasting
+        // For broadcasting, including the geo-scoped Jummah change topics of JummahLiveUpdateService
+        config.enableSimpleBroker("/topic");
         config.setApplicationDestinationPrefixes("/app"); // Client sends here
     }
 
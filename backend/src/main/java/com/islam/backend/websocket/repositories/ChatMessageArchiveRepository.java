@@ -0,0 +1,33 @@
+package com.islam.backend.websocket.repositories;
+
+import com.islam.backend.domain.entities.ChatMessageArchiveEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ChatMessageArchiveRepository extends JpaRepository<ChatMessageArchiveEntity, Long> {
+    List<ChatMessageArchiveEntity> findByJummahIdOrderByTimestampDesc(UUID jummahId);
+    Page<ChatMessageArchiveEntity> findByJummahIdOrderByTimestampDesc(UUID jummahId, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM ChatMessageArchiveEntity m")
+    long findMaxId();
+
+    /**
+     * Copy the chat messages of Jummahs into the archive in one statement, without loading them.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO chat_messages_archive (id, jummah_id, sender, message, type, timestamp)
+            SELECT id, jummah_id, sender, message, type, timestamp FROM chat_message_entity WHERE jummah_id IN :ids
+            """, nativeQuery = true)
+    int copyByJummahIds(@Param("ids") Collection<UUID> ids);
+}
@@ -4,8 +4,12 @@ import com.islam.backend.domain.entities.ChatMessageEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,4 +18,11 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessageEntity,
     List<ChatMessageEntity> findAllByOrderByTimestampAsc();
     List<ChatMessageEntity> findByJummahIdOrderByTimestampDesc(UUID jummahId);
     Page<ChatMessageEntity> findByJummahIdOrderByTimestampDesc(UUID jummahId, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM ChatMessageEntity m")
+    long findMaxId();
+
+    @Modifying
+    @Query("DELETE FROM ChatMessageEntity m WHERE m.jummah.id IN :jummahIds")
+    int deleteByJummahIds(@Param("jummahIds") Collection<UUID> jummahIds);
 }
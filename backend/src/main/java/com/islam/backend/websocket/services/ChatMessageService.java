@@ -14,4 +14,12 @@ public interface ChatMessageService {
     Optional<List<ChatMessageEntity>> getHistoryByJummahId(UUID jummahId);
 
     Page<ChatMessageEntity> getHistoryByJummahIdPageable(UUID jummahId, Pageable pageable);
+
+    /**
+     * Move the message id sequence past every id already used, live or archived,
+     * e.g. ids assigned by the identity column that preceded the sequence.
+     *
+     * @return The value the sequence was restarted at, 0 if it was already ahead
+     */
+    long advanceIdSequence();
 }
@@ -0,0 +1,48 @@
+package com.islam.backend.websocket.services;
+
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.utils.BoundingBox;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Pushes Jummah changes to STOMP topics scoped by geohash cell, {@value #TOPIC_PREFIX}{geohash},
+ * so a client only hears about the area it is looking at.
+ * Every change is sent to the cells containing the location at precisions
+ * {@value #MIN_PRECISION} to {@value #MAX_PRECISION}, so both zoomed in and zoomed out
+ * viewports can be covered by a small number of subscriptions.
+ */
+public interface JummahLiveUpdateService {
+
+    String TOPIC_PREFIX = "/topic/jummahs/cells/";
+
+    int MIN_PRECISION = 1;
+
+    // 5 character cells are about 5 km wide
+    int MAX_PRECISION = 5;
+
+    /**
+     * @param viewport The visible area
+     * @return The topics to subscribe to for live changes inside the viewport
+     */
+    List<String> topicsFor(BoundingBox viewport);
+
+    /**
+     * Announce a created or updated Jummah.
+     *
+     * @param location The current location
+     * @param version The change version of the save
+     * @param previous The location before the save, also notified when the Jummah moved; null if new
+     */
+    void publishUpsert(JummahMapResponse location, long version, JummahMapResponse previous);
+
+    /**
+     * Announce a deleted Jummah, or one that no longer has a location.
+     *
+     * @param id The Jummah ID
+     * @param version The change version of the deletion
+     * @param previous The last known location
+     */
+    void publishDelete(UUID id, long version, JummahMapResponse previous);
+}
@@ -1,24 +1,47 @@
 package com.islam.backend.websocket.services.impl;
 
+import com.islam.backend.domain.entities.ChatMessageArchiveEntity;
 import com.islam.backend.domain.entities.ChatMessageEntity;
+import com.islam.backend.domain.entities.JummahEntity;
 import com.islam.backend.repositories.JummahRepository;
+import com.islam.backend.websocket.repositories.ChatMessageArchiveRepository;
 import com.islam.backend.websocket.repositories.ChatMessageRepository;
 import com.islam.backend.websocket.services.ChatMessageService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+@Slf4j
 @Service
 public class ChatMessageServiceImpl implements ChatMessageService {
 
     private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageArchiveRepository chatMessageArchiveRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
 
-    public ChatMessageServiceImpl(ChatMessageRepository chatMessageRepository) {
+    public ChatMessageServiceImpl(ChatMessageRepository chatMessageRepository,
+                                  ChatMessageArchiveRepository chatMessageArchiveRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  EntityManagerFactory entityManagerFactory) {
         this.chatMessageRepository = chatMessageRepository;
+        this.chatMessageArchiveRepository = chatMessageArchiveRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
     }
 
     @Override
@@ -27,12 +50,59 @@ public class ChatMessageServiceImpl implements ChatMessageService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<List<ChatMessageEntity>> getHistoryByJummahId(UUID jummahId) {
-        return Optional.of(chatMessageRepository.findByJummahIdOrderByTimestampDesc(jummahId));
+        List<ChatMessageEntity> messages = chatMessageRepository.findByJummahIdOrderByTimestampDesc(jummahId);
+        if (messages.isEmpty()) {
+            // The Jummah may have been archived with its messages
+            messages = chatMessageArchiveRepository.findByJummahIdOrderByTimestampDesc(jummahId).stream()
+                    .map(this::fromArchive)
+                    .toList();
+        }
+        return Optional.of(messages);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<ChatMessageEntity> getHistoryByJummahIdPageable(UUID jummahId, Pageable pageable) {
-        return chatMessageRepository.findByJummahIdOrderByTimestampDesc(jummahId, pageable);
+        Page<ChatMessageEntity> page = chatMessageRepository.findByJummahIdOrderByTimestampDesc(jummahId, pageable);
+        if (page.getTotalElements() == 0) {
+            return chatMessageArchiveRepository.findByJummahIdOrderByTimestampDesc(jummahId, pageable).map(this::fromArchive);
+        }
+        return page;
+    }
+
+    /**
+     * Runs before messages can be posted, so the first pooled block of ids is already past the old ones.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public long advanceIdSequence() {
+        long maxId = Math.max(chatMessageRepository.findMaxId(), chatMessageArchiveRepository.findMaxId());
+        Long next = jdbcTemplate.queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString(ChatMessageEntity.ID_SEQUENCE), Long.class);
+
+        // The pooled optimizer hands out the block of ids ending at the sequence value
+        if (next != null && next - ChatMessageEntity.ID_ALLOCATION_SIZE >= maxId) {
+            return 0;
+        }
+        long restart = maxId + ChatMessageEntity.ID_ALLOCATION_SIZE + 1;
+        jdbcTemplate.execute("ALTER SEQUENCE " + ChatMessageEntity.ID_SEQUENCE + " RESTART WITH " + restart);
+        log.info("Advanced chat message id sequence to {}", restart);
+        return restart;
+    }
+
+    // Read-only view of an archived message; the Jummah only carries its id
+    private ChatMessageEntity fromArchive(ChatMessageArchiveEntity archived) {
+        return ChatMessageEntity.builder()
+                .id(archived.getId())
+                .sender(archived.getSender())
+                .message(archived.getMessage())
+                .type(archived.getType())
+                .timestamp(archived.getTimestamp())
+                .jummah(JummahEntity.builder().id(archived.getJummahId()).build())
+                .build();
     }
 }
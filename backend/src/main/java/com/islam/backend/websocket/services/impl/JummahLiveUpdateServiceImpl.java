@@ -0,0 +1,71 @@
+package com.islam.backend.websocket.services.impl;
+
+import com.islam.backend.domain.dto.jummah.response.JummahLiveEventResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.enums.JummahEventType;
+import com.islam.backend.utils.BoundingBox;
+import com.islam.backend.utils.GeoHash;
+import com.islam.backend.websocket.services.JummahLiveUpdateService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class JummahLiveUpdateServiceImpl implements JummahLiveUpdateService {
+
+    // Upper bound on the subscriptions needed for one viewport
+    private static final int MAX_SUBSCRIBED_CELLS = 32;
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    @Override
+    public List<String> topicsFor(BoundingBox viewport) {
+        // Never finer than the published cells; a precision 1 cover fits in 32 cells for any viewport
+        Set<String> topics = new LinkedHashSet<>();
+        for (String prefix : GeoHash.cover(viewport, MAX_SUBSCRIBED_CELLS)) {
+            topics.add(TOPIC_PREFIX + prefix.substring(0, Math.min(prefix.length(), MAX_PRECISION)));
+        }
+        return List.copyOf(topics);
+    }
+
+    @Override
+    public void publishUpsert(JummahMapResponse location, long version, JummahMapResponse previous) {
+        Set<String> topics = topicsAt(location);
+        if (previous != null) {
+            topics.addAll(topicsAt(previous));
+        }
+        JummahLiveEventResponse event = JummahLiveEventResponse.builder()
+                .type(JummahEventType.UPSERTED)
+                .id(location.getId())
+                .version(version)
+                .location(location)
+                .build();
+        topics.forEach(topic -> messagingTemplate.convertAndSend(topic, event));
+    }
+
+    @Override
+    public void publishDelete(UUID id, long version, JummahMapResponse previous) {
+        JummahLiveEventResponse event = JummahLiveEventResponse.builder()
+                .type(JummahEventType.DELETED)
+                .id(id)
+                .version(version)
+                .build();
+        topicsAt(previous).forEach(topic -> messagingTemplate.convertAndSend(topic, event));
+    }
+
+    // The topics of the cells containing a location, one per published precision
+    private Set<String> topicsAt(JummahMapResponse location) {
+        String geohash = GeoHash.encode(location.getLatitude(), location.getLongitude(), MAX_PRECISION);
+        Set<String> topics = new LinkedHashSet<>();
+        for (int precision = MIN_PRECISION; precision <= MAX_PRECISION; precision++) {
+            topics.add(TOPIC_PREFIX + geohash.substring(0, precision));
+        }
+        return topics;
+    }
+}
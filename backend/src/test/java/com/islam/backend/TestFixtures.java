@@ -0,0 +1,69 @@
+package com.islam.backend;
+
+import com.islam.backend.domain.entities.AccountEntity;
+import com.islam.backend.domain.entities.JummahEntity;
+import com.islam.backend.domain.entities.value.Geolocation;
+import com.islam.backend.enums.Gender;
+import com.islam.backend.enums.PrayerTime;
+import com.islam.backend.repositories.AccountRepository;
+import com.islam.backend.repositories.JummahRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+/**
+ * Saves the accounts and Jummahs that integration tests start from.
+ * Rows are saved straight through the repositories, around the services and the change log.
+ */
+@Component
+@RequiredArgsConstructor
+public class TestFixtures {
+
+    private final AccountRepository accountRepository;
+    private final JummahRepository jummahRepository;
+
+    /**
+     * @return A new account with a unique email
+     */
+    public AccountEntity account() {
+        return accountRepository.save(AccountEntity.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .password("password")
+                .firstName("First")
+                .lastName("Last")
+                .gender(Gender.MALE)
+                .build());
+    }
+
+    /**
+     * @return A new Jummah at noon tomorrow in downtown Toronto, organized by a new account
+     */
+    public JummahEntity jummah() {
+        return jummah(UnaryOperator.identity());
+    }
+
+    /**
+     * Save a new Jummah at noon tomorrow in downtown Toronto, with some fields changed.
+     * A new account organizes it unless the customizer sets an organizer.
+     *
+     * @param customizer Changes the defaults before the Jummah is built
+     * @return The saved Jummah
+     */
+    public JummahEntity jummah(UnaryOperator<JummahEntity.JummahEntityBuilder> customizer) {
+        JummahEntity jummah = customizer.apply(JummahEntity.builder()
+                .date(LocalDate.now().plusDays(1))
+                .time(LocalTime.NOON)
+                .prayerTime(PrayerTime.values()[0])
+                .genderTarget(Gender.MALE)
+                .geolocation(new Geolocation(43.65, -79.38)))
+                .build();
+        if (jummah.getOrganizer() == null) {
+            jummah.setOrganizer(account());
+        }
+        return jummahRepository.save(jummah);
+    }
+}
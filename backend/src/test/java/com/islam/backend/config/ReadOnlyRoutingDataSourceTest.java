@@ -0,0 +1,101 @@
+package com.islam.backend.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadOnlyRoutingDataSourceTest {
+
+    private static final String PREFIX = "com.islam.backend.";
+
+    private final DataSource primary = database("primary");
+    private final DataSource replica = database("replica");
+    private final AtomicBoolean replicaUsable = new AtomicBoolean(true);
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        DataSource routing = new LazyConnectionDataSourceProxy(
+                new ReadOnlyRoutingDataSource(primary, replica, PREFIX, replicaUsable::get));
+        jdbcTemplate = new JdbcTemplate(routing);
+        transactionManager = new DataSourceTransactionManager(routing);
+    }
+
+    @Test
+    void readOnlyServiceTransactionsUseTheReplica() {
+        assertEquals("replica", nodeIn(true, PREFIX + "services.SomeServiceImpl.find"));
+        assertEquals("primary", nodeIn(false, PREFIX + "services.SomeServiceImpl.save"));
+        assertEquals("primary", jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    @Test
+    void repositoryDefaultTransactionsStayOnThePrimary() {
+        assertEquals("primary", nodeIn(true, "org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById"));
+    }
+
+    @Test
+    void loginLookupsStayOnThePrimary() throws Exception {
+        Class<?> repository = Class.forName(PREFIX + "repositories.AccountRepositoryCustomImpl");
+        Method method = repository.getMethod("findByNaturalEmail", String.class);
+        TransactionAttribute attribute = new AnnotationTransactionAttributeSource().getTransactionAttribute(method, repository);
+        assertEquals("primary", nodeIn(attribute.isReadOnly(), ClassUtils.getQualifiedMethodName(method, repository)));
+    }
+
+    @Test
+    void unusableReplicaFallsBackToThePrimary() {
+        replicaUsable.set(false);
+        assertEquals("primary", nodeIn(true, PREFIX + "services.SomeServiceImpl.find"));
+    }
+
+    @Test
+    void lagBeyondTheToleranceMakesTheReplicaUnusable() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "SELECT lag FROM node", Duration.ofSeconds(5));
+        assertFalse(monitor.isReplicaUsable());
+
+        monitor.check();
+        assertTrue(monitor.isReplicaUsable());
+        assertEquals(1.0, monitor.getLagSeconds());
+
+        new JdbcTemplate(replica).update("UPDATE node SET lag = 30");
+        monitor.check();
+        assertFalse(monitor.isReplicaUsable());
+
+        ReplicaLagMonitor broken = new ReplicaLagMonitor(replica, "SELECT missing FROM node", Duration.ofSeconds(5));
+        broken.check();
+        assertFalse(broken.isReplicaUsable());
+    }
+
+    private String nodeIn(boolean readOnly, String transactionName) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        template.setName(transactionName);
+        return template.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(16), lag DOUBLE PRECISION)");
+        jdbcTemplate.update("INSERT INTO node VALUES (?, 1)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,155 @@
+package com.islam.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.islam.backend.TestFixtures;
+import com.islam.backend.domain.entities.JummahEntity;
+import com.islam.backend.services.jummah.JummahPublicService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class JummahPublicControllerTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JummahPublicService jummahPublicService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void detailOfAnUntrackedJummahIsValidatedOnceLoaded() throws Exception {
+        // Saved around the change log, so its version is not tracked in memory yet
+        JummahEntity jummah = fixtures.jummah(j -> j.changeVersion(987_654_321L));
+        String etag = "\"987654321\"";
+
+        mockMvc.perform(get("/api/jummah/public/detail/{id}", jummah.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        // Tracked by the first read, answered without loading
+        mockMvc.perform(get("/api/jummah/public/detail/{id}", jummah.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/api/jummah/public/detail/{id}", jummah.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void mapIsNotModifiedUntilTheDataSetChanges() throws Exception {
+        assertRevalidated(() -> get("/api/jummah/public/map")
+                .param("bbox", "-80,43,-79,44")
+                .param("zoom", "12"));
+    }
+
+    @Test
+    void nearbyIsNotModifiedUntilTheDataSetChanges() throws Exception {
+        assertRevalidated(() -> get("/api/jummah/public/nearby")
+                .param("latitude", "43.65")
+                .param("longitude", "-79.38")
+                .param("radius", "5"));
+    }
+
+    @Test
+    void locationPagesFollowTheCursorThroughEveryLocation() throws Exception {
+        Set<String> created = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(fixtures.jummah().getId().toString());
+        }
+        int total = jummahPublicService.findAllJummahLocation().size();
+
+        List<String> paged = new ArrayList<>();
+        String after = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/jummah/public/locations").param("size", "2");
+            if (after != null) {
+                request.param("after", after);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString()).get("data");
+            assertTrue(page.get("locations").size() <= 2);
+            page.get("locations").forEach(location -> paged.add(location.get("id").asText()));
+            after = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (after != null);
+
+        assertEquals(total, paged.size());
+        assertEquals(total, new HashSet<>(paged).size());
+        assertTrue(paged.containsAll(created));
+
+        mockMvc.perform(get("/api/jummah/public/locations").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void locationStreamWritesEveryLocationInTheEnvelope() throws Exception {
+        String id = fixtures.jummah().getId().toString();
+        int total = jummahPublicService.findAllJummahLocation().size();
+
+        MvcResult started = mockMvc.perform(get("/api/jummah/public/locations/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        JsonNode body = objectMapper.readTree(mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString());
+
+        assertTrue(body.get("success").asBoolean());
+        assertTrue(body.get("timestamp").asLong() > 0);
+        List<String> streamed = new ArrayList<>();
+        body.get("data").forEach(location -> streamed.add(location.get("id").asText()));
+        assertEquals(total, streamed.size());
+        assertTrue(streamed.contains(id));
+    }
+
+    // Fetches once for the ETag, then checks a matching If-None-Match gets a bodiless 304 and a stale one the full response
+    private void assertRevalidated(Supplier<MockHttpServletRequestBuilder> request) throws Exception {
+        String etag = mockMvc.perform(request.get())
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(request.get().header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(request.get().header(HttpHeaders.IF_NONE_MATCH, "\"d0.0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+}
@@ -0,0 +1,107 @@
+package com.islam.backend.mapper.impl;
+
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JummahSnapshotMapperImplTest {
+
+    private final JummahSnapshotMapperImpl mapper = new JummahSnapshotMapperImpl();
+
+    @Test
+    void pointBlockRoundTripsAndIsSmallerThanJson() {
+        Random random = new Random(1);
+        List<JummahMapResponse> points = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            points.add(JummahMapResponse.builder()
+                    .id(UUID.randomUUID())
+                    .latitude(43.6 + random.nextDouble() * 0.1)
+                    .longitude(-79.4 - random.nextDouble() * 0.1)
+                    .isVerifiedOrganizer(random.nextBoolean())
+                    .build());
+        }
+
+        byte[] block = mapper.toPointBlock(points);
+        Set<JummahMapResponse> decoded = new HashSet<>(decodePointBlock(ByteBuffer.wrap(block)));
+
+        Set<JummahMapResponse> expected = new HashSet<>();
+        for (JummahMapResponse point : points) {
+            expected.add(JummahMapResponse.builder()
+                    .id(point.getId())
+                    .latitude(Math.round(point.getLatitude() * 1e6) / 1e6)
+                    .longitude(Math.round(point.getLongitude() * 1e6) / 1e6)
+                    .isVerifiedOrganizer(point.isVerifiedOrganizer())
+                    .build());
+        }
+        assertEquals(expected, decoded);
+        // A UUID plus a few bytes of coordinates, against roughly 110 bytes of JSON per point
+        assertTrue(block.length < points.size() * 24, "block is " + block.length + " bytes");
+    }
+
+    @Test
+    void emptyBlockHasNoPayload() {
+        ByteBuffer block = ByteBuffer.wrap(mapper.toPointBlock(List.of()));
+        assertTrue(decodePointBlock(block).isEmpty());
+        assertFalse(block.hasRemaining());
+    }
+
+    private static List<JummahMapResponse> decodePointBlock(ByteBuffer buffer) {
+        assertEquals(1, buffer.get());
+        int count = (int) readVarint(buffer);
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        int latitude = 0;
+        int longitude = 0;
+        for (int i = 0; i < count; i++) {
+            latitude += unzigzag(readVarint(buffer));
+            longitude += unzigzag(readVarint(buffer));
+            latitudes[i] = latitude / 1e6;
+            longitudes[i] = longitude / 1e6;
+        }
+        UUID[] ids = new UUID[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = new UUID(buffer.getLong(), buffer.getLong());
+        }
+        byte[] flags = new byte[(count + 7) / 8];
+        buffer.get(flags);
+
+        List<JummahMapResponse> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            points.add(JummahMapResponse.builder()
+                    .id(ids[i])
+                    .latitude(latitudes[i])
+                    .longitude(longitudes[i])
+                    .isVerifiedOrganizer((flags[i >>> 3] & (1 << (i & 7))) != 0)
+                    .build());
+        }
+        return points;
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static int unzigzag(long value) {
+        int n = (int) value;
+        return (n >>> 1) ^ -(n & 1);
+    }
+}
@@ -0,0 +1,143 @@
+package com.islam.backend.services.jummah;
+
+import com.islam.backend.TestFixtures;
+import com.islam.backend.domain.entities.AccountEntity;
+import com.islam.backend.domain.entities.ChatMessageEntity;
+import com.islam.backend.domain.entities.JummahEntity;
+import com.islam.backend.domain.entities.JummahTombstoneEntity;
+import com.islam.backend.enums.MessageType;
+import com.islam.backend.repositories.JummahRepository;
+import com.islam.backend.repositories.JummahTombstoneRepository;
+import com.islam.backend.websocket.repositories.ChatMessageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class JummahArchiverTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JummahArchiver jummahArchiver;
+
+    @Autowired
+    private JummahRepository jummahRepository;
+
+    @Autowired
+    private JummahTombstoneRepository jummahTombstoneRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void pastJummahsMoveToTheArchiveWithAttendeesAndMessages() throws Exception {
+        AccountEntity organizer = fixtures.account();
+        List<AccountEntity> attendees = List.of(fixtures.account(), fixtures.account());
+        JummahEntity past = jummah(organizer, attendees, LocalDate.now().minusDays(60));
+        JummahEntity upcoming = jummah(fixtures.account(), List.of(fixtures.account()), LocalDate.now().plusDays(1));
+        message(past, "Salam");
+        message(past, "See you there");
+        message(upcoming, "Still live");
+        long versionBefore = Math.max(past.getChangeVersion(), upcoming.getChangeVersion());
+
+        assertTrue(jummahArchiver.archive() >= 1);
+
+        // The past Jummah left the live tables and reached the archive ones
+        assertFalse(jummahRepository.existsById(past.getId()));
+        assertTrue(jummahRepository.existsById(upcoming.getId()));
+        assertEquals(1, count("jummahs_archive", "id", past.getId()));
+        assertEquals(0, count("jummahs_archive", "id", upcoming.getId()));
+        assertEquals(2, count("jummahs_attendees_archive", "jummah_id", past.getId()));
+        assertEquals(0, count("jummahs_attendees", "jummah_id", past.getId()));
+        assertEquals(2, count("chat_messages_archive", "jummah_id", past.getId()));
+        assertEquals(0, count("chat_message_entity", "jummah_id", past.getId()));
+        assertEquals(1, count("chat_message_entity", "jummah_id", upcoming.getId()));
+
+        // A tombstone tells delta sync clients to drop it
+        List<JummahTombstoneEntity> tombstones = jummahTombstoneRepository
+                .findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersion(
+                        versionBefore, Long.MAX_VALUE, PageRequest.of(0, 1000));
+        assertTrue(tombstones.stream().anyMatch(tombstone -> tombstone.getJummahId().equals(past.getId())));
+        assertFalse(tombstones.stream().anyMatch(tombstone -> tombstone.getJummahId().equals(upcoming.getId())));
+
+        mockMvc.perform(get("/api/jummah/public/archive/{id}", past.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value(past.getId().toString()))
+                .andExpect(jsonPath("$.data.organizerId").value(organizer.getId().toString()))
+                .andExpect(jsonPath("$.data.attendeeIds", containsInAnyOrder(
+                        attendees.get(0).getId().toString(), attendees.get(1).getId().toString())));
+        mockMvc.perform(get("/api/jummah/public/archive/{id}", upcoming.getId()))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/chat/jummah/{id}/history", past.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(2)))
+                .andExpect(jsonPath("$.data[*].message", containsInAnyOrder("Salam", "See you there")));
+        mockMvc.perform(get("/api/chat/jummah/{id}/history/pageable", past.getId()).param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content", hasSize(1)))
+                .andExpect(jsonPath("$.data.totalElements").value(2));
+    }
+
+    @Test
+    void archivingTwiceMovesNothing() {
+        jummah(fixtures.account(), List.of(), LocalDate.now().minusDays(45));
+        jummahArchiver.archive();
+
+        assertEquals(0, jummahArchiver.archive());
+    }
+
+    private int count(String table, String column, UUID id) {
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?", Integer.class, id);
+        return rows != null ? rows : 0;
+    }
+
+    private JummahEntity jummah(AccountEntity organizer, List<AccountEntity> attendees, LocalDate date) {
+        return fixtures.jummah(j -> j
+                .organizer(organizer)
+                .attendees(new ArrayList<>(attendees))
+                .attendeeCount(attendees.size())
+                .date(date));
+    }
+
+    private void message(JummahEntity jummah, String text) {
+        chatMessageRepository.save(ChatMessageEntity.builder()
+                .sender("First Last")
+                .message(text)
+                .type(MessageType.CHAT)
+                .timestamp(LocalDateTime.now())
+                .jummah(jummah)
+                .build());
+    }
+}
@@ -0,0 +1,65 @@
+package com.islam.backend.services.jummah;
+
+import com.islam.backend.exceptions.ConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JummahConflictRetryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JummahConflictRetry retry = new JummahConflictRetry(3, Duration.ofMillis(1), Duration.ofMillis(2), meterRegistry);
+    private final UUID jummahId = UUID.randomUUID();
+
+    @Test
+    void conflictingWriteIsRetriedUntilItSucceeds() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.run("update", jummahId, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale");
+            }
+            return "saved";
+        });
+
+        assertEquals("saved", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2, meterRegistry.counter("jummah.write.conflicts", "operation", "update").count());
+        assertEquals(2, meterRegistry.counter("jummah.write.retries", "operation", "update").count());
+        assertEquals(0, meterRegistry.counter("jummah.write.exhausted", "operation", "update").count());
+    }
+
+    @Test
+    void writeThatKeepsConflictingFailsWithConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ConflictException.class, () -> retry.run("join", jummahId, () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale");
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(3, meterRegistry.counter("jummah.write.conflicts", "operation", "join").count());
+        assertEquals(1, meterRegistry.counter("jummah.write.exhausted", "operation", "join").count());
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(DataIntegrityViolationException.class, () -> retry.run("join", jummahId, () -> {
+            attempts.incrementAndGet();
+            throw new DataIntegrityViolationException("duplicate");
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,170 @@
+package com.islam.backend.services.jummah;
+
+import com.islam.backend.domain.dto.jummah.response.JummahClusterResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahMapViewResponse;
+import com.islam.backend.mapper.impl.JummahSnapshotMapperImpl;
+import com.islam.backend.repositories.JummahRepository;
+import com.islam.backend.utils.BoundingBox;
+import com.islam.backend.utils.DistanceMode;
+import com.islam.backend.utils.TimeWindow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JummahLocationIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 16);
+
+    // A viewport around downtown Toronto, small enough to be served as points
+    private static final BoundingBox DOWNTOWN = new BoundingBox(43.63, -79.40, 43.67, -79.36);
+    private static final int POINT_ZOOM = JummahLocationIndex.CLUSTER_MAX_ZOOM + 2;
+
+    private final MovableClock clock = new MovableClock(TODAY.atTime(9, 0).toInstant(ZoneOffset.UTC));
+    private JummahLocationIndex index;
+
+    @BeforeEach
+    void setUp() {
+        JummahRepository jummahRepository = mock(JummahRepository.class);
+        when(jummahRepository.findLocationsFrom(any())).thenReturn(List.of());
+        index = new JummahLocationIndex(jummahRepository, new JummahSnapshotMapperImpl(), DistanceMode.HAVERSINE, clock);
+        index.rebuild();
+    }
+
+    @Test
+    void windowsFilterPointsAndClustersByStartTime() {
+        JummahMapResponse todayNoon = location(TODAY, LocalTime.NOON, 43.650, -79.380);
+        JummahMapResponse todayEvening = location(TODAY, LocalTime.of(18, 0), 43.651, -79.381);
+        JummahMapResponse tomorrow = location(TODAY.plusDays(1), LocalTime.NOON, 43.652, -79.382);
+        JummahMapResponse nextWeek = location(TODAY.plusDays(7), LocalTime.NOON, 43.653, -79.383);
+        List.of(todayNoon, todayEvening, tomorrow, nextWeek).forEach(index::index);
+
+        assertEquals(ids(todayNoon, todayEvening, tomorrow, nextWeek),
+                points(new TimeWindow(TODAY.atStartOfDay(), null)));
+        assertEquals(ids(todayEvening, tomorrow),
+                points(new TimeWindow(TODAY.atTime(13, 0), TODAY.plusDays(1).atTime(13, 0))));
+        assertEquals(ids(tomorrow), points(new TimeWindow(TODAY.plusDays(1).atStartOfDay(), TODAY.plusDays(2).atStartOfDay())));
+
+        // Clusters count every Jummah on the days the window touches
+        assertEquals(4L, clusterTotal(new TimeWindow(TODAY.atStartOfDay(), null)));
+        assertEquals(3L, clusterTotal(new TimeWindow(TODAY.atTime(13, 0), TODAY.plusDays(1).atTime(13, 0))));
+        assertEquals(1L, clusterTotal(new TimeWindow(TODAY.plusDays(7).atStartOfDay(), null)));
+        // A window ending at midnight does not touch the next day
+        assertEquals(2L, clusterTotal(new TimeWindow(TODAY.atStartOfDay(), TODAY.plusDays(1).atStartOfDay())));
+    }
+
+    @Test
+    void pastDaysAreDroppedWhenTheDateChanges() {
+        JummahMapResponse today = location(TODAY, LocalTime.NOON, 43.650, -79.380);
+        JummahMapResponse tomorrow = location(TODAY.plusDays(1), LocalTime.NOON, 43.652, -79.382);
+        index.index(today);
+        index.index(tomorrow);
+        assertTrue(index.covers(new TimeWindow(TODAY.atStartOfDay(), null)));
+
+        clock.advance(Duration.ofDays(1));
+
+        assertFalse(index.covers(new TimeWindow(TODAY.atStartOfDay(), null)));
+        assertTrue(index.covers(new TimeWindow(TODAY.plusDays(1).atStartOfDay(), null)));
+        assertEquals(ids(tomorrow), index.findWithinRadius(43.65, -79.38, 5).stream()
+                .map(JummahMapResponse::getId).collect(Collectors.toSet()));
+        assertTrue(index.find(today.getId()).isEmpty());
+        assertEquals(1L, clusterTotal(new TimeWindow(TODAY.plusDays(1).atStartOfDay(), null)));
+
+        // A late write for the expired day is not indexed again
+        index.index(today);
+        assertTrue(index.find(today.getId()).isEmpty());
+    }
+
+    @Test
+    void movingAJummahToAnotherDayMovesItsPartition() {
+        JummahMapResponse jummah = location(TODAY, LocalTime.NOON, 43.650, -79.380);
+        index.index(jummah);
+        index.index(location(jummah.getId(), TODAY.plusDays(3), LocalTime.NOON, 43.650, -79.380));
+
+        assertEquals(0L, clusterTotal(new TimeWindow(TODAY.atStartOfDay(), TODAY.plusDays(1).atStartOfDay())));
+        assertEquals(1L, clusterTotal(new TimeWindow(TODAY.plusDays(3).atStartOfDay(), null)));
+
+        clock.advance(Duration.ofDays(1));
+        assertTrue(index.find(jummah.getId()).isPresent());
+
+        index.remove(jummah.getId());
+        assertEquals(0L, clusterTotal(new TimeWindow(TODAY.plusDays(1).atStartOfDay(), null)));
+    }
+
+    private Set<UUID> points(TimeWindow window) {
+        JummahMapViewResponse view = index.findInViewport(DOWNTOWN, POINT_ZOOM, window);
+        assertTrue(view.getClusters().isEmpty());
+        return view.getPoints().stream().map(JummahMapResponse::getId).collect(Collectors.toSet());
+    }
+
+    // Jummahs counted by the zoomed out clusters, including single-point ones listed as points
+    private long clusterTotal(TimeWindow window) {
+        JummahMapViewResponse view = index.findInViewport(DOWNTOWN, 0, window);
+        return view.getClusters().stream().mapToLong(JummahClusterResponse::getCount).sum() + view.getPoints().size();
+    }
+
+    private static Set<UUID> ids(JummahMapResponse... locations) {
+        return Stream.of(locations).map(JummahMapResponse::getId).collect(Collectors.toSet());
+    }
+
+    private static JummahMapResponse location(LocalDate date, LocalTime time, double latitude, double longitude) {
+        return location(UUID.randomUUID(), date, time, latitude, longitude);
+    }
+
+    private static JummahMapResponse location(UUID id, LocalDate date, LocalTime time, double latitude, double longitude) {
+        return JummahMapResponse.builder()
+                .id(id)
+                .date(date)
+                .time(time)
+                .latitude(latitude)
+                .longitude(longitude)
+                .build();
+    }
+
+    private static final class MovableClock extends Clock {
+
+        private Instant instant;
+
+        private MovableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
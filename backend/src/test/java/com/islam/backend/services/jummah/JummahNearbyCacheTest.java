@@ -0,0 +1,119 @@
+package com.islam.backend.services.jummah;
+
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.utils.GeoMath;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JummahNearbyCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger searches = new AtomicInteger();
+    private final JummahNearbyCache.RadiusSearch search = (latitude, longitude, radiusKm) -> {
+        searches.incrementAndGet();
+        return List.of(location(latitude, longitude));
+    };
+
+    @Test
+    void nearbyCentersShareOneEntry() {
+        JummahNearbyCache cache = new JummahNearbyCache(100, meterRegistry);
+
+        List<JummahMapResponse> first = cache.get(43.65012, -79.38044, 10, search);
+        List<JummahMapResponse> second = cache.get(43.65088, -79.38011, 10, search);
+
+        assertEquals(first, second);
+        assertEquals(1, searches.get());
+        assertEquals(1.0, meterRegistry.counter("jummah.nearby.cache", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("jummah.nearby.cache", "result", "miss").count());
+    }
+
+    @Test
+    void invalidationOnlyEvictsCirclesContainingTheLocation() {
+        JummahNearbyCache cache = new JummahNearbyCache(100, meterRegistry);
+        cache.get(43.65, -79.38, 5, search);
+        cache.get(43.75, -79.38, 5, search);
+
+        // About 5.6 km from the first center and 5.6 km from the second: only the first still covers it
+        cache.invalidate(43.70, -79.38 + 0.001);
+        assertEquals(2, cache.size());
+        cache.invalidate(43.66, -79.38);
+        assertEquals(1, cache.size());
+
+        cache.get(43.75, -79.38, 5, search);
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        JummahNearbyCache cache = new JummahNearbyCache(2, meterRegistry);
+        cache.get(10, 10, 5, search);
+        cache.get(20, 20, 5, search);
+        cache.get(10, 10, 5, search);
+        cache.get(30, 30, 5, search);
+
+        assertEquals(2, cache.size());
+        cache.get(10, 10, 5, search);
+        assertEquals(3, searches.get());
+        assertEquals(1.0, meterRegistry.counter("jummah.nearby.cache.evictions").count());
+    }
+
+    @Test
+    void cachedResultsAreCutExactlyAroundEachCaller() {
+        // A ring of locations straddling the 1 km edge of circles around points in one grid square
+        List<JummahMapResponse> ring = new ArrayList<>();
+        for (int i = 0; i < 360; i++) {
+            double bearing = Math.toRadians(i);
+            double distanceKm = 0.9 + (i % 5) * 0.05;
+            ring.add(location(43.6505 + Math.toDegrees(distanceKm / GeoMath.EARTH_RADIUS_KM) * Math.cos(bearing),
+                    -79.3805 + Math.toDegrees(distanceKm / GeoMath.EARTH_RADIUS_KM) * Math.sin(bearing) / Math.cos(Math.toRadians(43.6505))));
+        }
+        JummahNearbyCache.RadiusSearch bruteForce = (latitude, longitude, radiusKm) -> {
+            searches.incrementAndGet();
+            return ring.stream()
+                    .filter(location -> GeoMath.haversineDistance(latitude, longitude, location.getLatitude(), location.getLongitude()) <= radiusKm)
+                    .toList();
+        };
+        JummahNearbyCache cache = new JummahNearbyCache(100, meterRegistry);
+
+        for (double[] caller : new double[][]{{43.65001, -79.38099}, {43.65099, -79.38001}, {43.6505, -79.3805}}) {
+            Set<UUID> expected = bruteForce.find(caller[0], caller[1], 1).stream().map(JummahMapResponse::getId).collect(Collectors.toSet());
+            Set<UUID> cached = cache.get(caller[0], caller[1], 1, bruteForce).stream().map(JummahMapResponse::getId).collect(Collectors.toSet());
+            assertEquals(expected, cached);
+        }
+        // One superset search, plus the three brute force checks
+        assertEquals(4, searches.get());
+    }
+
+    @Test
+    void invalidationReachesLocationsInTheSnapSlack() {
+        JummahNearbyCache cache = new JummahNearbyCache(100, meterRegistry);
+        cache.get(43.65001, -79.38099, 1, search);
+
+        // Just past 1 km from the square's center, within 1 km of callers in its corners
+        cache.invalidate(43.6505 + Math.toDegrees(1.05 / GeoMath.EARTH_RADIUS_KM), -79.3805);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void largeRadiusBypassesTheCache() {
+        JummahNearbyCache cache = new JummahNearbyCache(100, meterRegistry);
+        cache.get(43.65, -79.38, JummahNearbyCache.MAX_CACHED_RADIUS_KM + 1, search);
+        cache.get(43.65, -79.38, JummahNearbyCache.MAX_CACHED_RADIUS_KM + 1, search);
+
+        assertEquals(2, searches.get());
+        assertEquals(0, cache.size());
+    }
+
+    private static JummahMapResponse location(double latitude, double longitude) {
+        return JummahMapResponse.builder().id(UUID.randomUUID()).latitude(latitude).longitude(longitude).build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.islam.backend.services.jummah.impl;
+
+import com.islam.backend.TestFixtures;
+import com.islam.backend.domain.dto.jummah.request.JummahCreateRequest;
+import com.islam.backend.domain.dto.jummah.response.JummahChangesResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.domain.entities.JummahChangeInFlightEntity;
+import com.islam.backend.domain.entities.JummahEntity;
+import com.islam.backend.enums.PrayerTime;
+import com.islam.backend.repositories.JummahChangeInFlightRepository;
+import com.islam.backend.repositories.JummahRepository;
+import com.islam.backend.security.user.AppUserDetails;
+import com.islam.backend.services.jummah.JummahChangeLog;
+import com.islam.backend.services.jummah.JummahPublicService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class JummahPublicServiceImplChangesTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JummahPublicService jummahPublicService;
+
+    @Autowired
+    private JummahChangeLog jummahChangeLog;
+
+    @Autowired
+    private JummahRepository jummahRepository;
+
+    @Autowired
+    private JummahChangeInFlightRepository jummahChangeInFlightRepository;
+
+    @Test
+    void changesAfterAVersionHoldCreatesUpdatesAndDeletes() {
+        UUID before = create();
+        long since = sync(0).version();
+
+        UUID updated = create();
+        UUID deleted = create();
+        UUID created = create();
+        assertTrue(jummahPublicService.updateJummah(updated, JummahCreateRequest.builder().notes("Moved inside").build()));
+        jummahPublicService.deleteById(deleted);
+
+        Sync sync = sync(since);
+        // In change order, each Jummah once with its latest state
+        assertEquals(List.of(created, updated), sync.upserted());
+        assertEquals(List.of(deleted), sync.deleted());
+        assertFalse(sync.upserted().contains(before));
+
+        Sync again = sync(sync.version());
+        assertTrue(again.upserted().isEmpty());
+        assertTrue(again.deleted().isEmpty());
+        assertTrue(again.version() >= sync.version());
+    }
+
+    @Test
+    void joinsAreChangesToo() {
+        UUID jummah = create();
+        long since = sync(0).version();
+
+        assertTrue(jummahPublicService.addAttendee(jummah, fixtures.account().getId()));
+
+        Sync sync = sync(since);
+        assertEquals(List.of(jummah), sync.upserted());
+        assertEquals(1, jummahPublicService.findChangesSince(since, 10).getUpserted().get(0).getAttendeeCount());
+    }
+
+    @Test
+    void backfilledJummahsAppearInAFullSync() {
+        // Saved around the change log, as before change versions existed
+        JummahEntity legacy = fixtures.jummah();
+        assertEquals(0, legacy.getChangeVersion());
+        long since = sync(0).version();
+
+        jummahChangeLog.backfillChangeVersions();
+
+        assertTrue(jummahRepository.findById(legacy.getId()).orElseThrow().getChangeVersion() > since);
+        assertTrue(sync(0).upserted().contains(legacy.getId()));
+        // Along with any other Jummah saved without a version
+        assertTrue(sync(since).upserted().contains(legacy.getId()));
+    }
+
+    @Test
+    void watermarkStopsBelowChangesInFlightWithoutTakingVersions() {
+        UUID latest = create();
+        long latestVersion = jummahRepository.findById(latest).orElseThrow().getChangeVersion();
+        assertEquals(latestVersion, jummahChangeLog.committedVersion());
+        assertEquals(latestVersion, jummahChangeLog.committedVersion());
+
+        JummahChangeInFlightEntity inFlight = jummahChangeInFlightRepository.save(JummahChangeInFlightEntity.builder()
+                .floorVersion(latestVersion - 1)
+                .registeredAt(LocalDateTime.now())
+                .build());
+        assertEquals(latestVersion - 1, jummahChangeLog.committedVersion());
+
+        jummahChangeInFlightRepository.delete(inFlight);
+        assertEquals(latestVersion, jummahChangeLog.committedVersion());
+    }
+
+    private record Sync(long version, List<UUID> upserted, List<UUID> deleted) {
+    }
+
+    // Pages through every change after a version in small pages, checking the versions only move forward
+    private Sync sync(long since) {
+        List<UUID> upserted = new ArrayList<>();
+        List<UUID> deleted = new ArrayList<>();
+        long version = since;
+        JummahChangesResponse page;
+        do {
+            page = jummahPublicService.findChangesSince(version, 2);
+            assertTrue(page.getVersion() >= version, "Versions must never go back");
+            if (!page.getUpserted().isEmpty() || !page.getDeleted().isEmpty()) {
+                assertTrue(page.getVersion() > version, "A page with changes must move the version forward");
+            }
+            page.getUpserted().stream().map(JummahMapResponse::getId).forEach(upserted::add);
+            deleted.addAll(page.getDeleted());
+            version = page.getVersion();
+        } while (page.isHasMore());
+        return new Sync(version, upserted, deleted);
+    }
+
+    private UUID create() {
+        return jummahPublicService.save(JummahCreateRequest.builder()
+                .date(LocalDate.now().plusDays(1))
+                .time(LocalTime.NOON)
+                .latitude(43.65)
+                .longitude(-79.38)
+                .prayerTime(PrayerTime.values()[0])
+                .build(), new AppUserDetails(fixtures.account())).getId();
+    }
+}
@@ -0,0 +1,76 @@
+package com.islam.backend.services.jummah.impl;
+
+import com.islam.backend.TestFixtures;
+import com.islam.backend.domain.entities.JummahEntity;
+import com.islam.backend.repositories.JummahRepository;
+import com.islam.backend.services.jummah.JummahPublicService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class JummahPublicServiceImplConcurrencyTest {
+
+    private static final int JOINERS = 8;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JummahPublicService jummahPublicService;
+
+    @Autowired
+    private JummahRepository jummahRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentJoinsAllLandWithDefaultRetries() throws Exception {
+        JummahEntity jummah = fixtures.jummah();
+        List<UUID> joiners = new ArrayList<>();
+        for (int i = 0; i < JOINERS; i++) {
+            joiners.add(fixtures.account().getId());
+        }
+        double exhaustedBefore = exhausted();
+
+        CyclicBarrier start = new CyclicBarrier(JOINERS);
+        ExecutorService executor = Executors.newFixedThreadPool(JOINERS);
+        try {
+            List<Future<Boolean>> joins = new ArrayList<>();
+            for (UUID accountId : joiners) {
+                joins.add(executor.submit(() -> {
+                    start.await();
+                    return jummahPublicService.addAttendee(jummah.getId(), accountId);
+                }));
+            }
+            for (Future<Boolean> join : joins) {
+                assertTrue(join.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        JummahEntity joined = jummahRepository.findById(jummah.getId()).orElseThrow();
+        assertEquals(JOINERS, joined.getAttendeeCount());
+        assertEquals(JOINERS, jummahPublicService.findById(jummah.getId()).getAttendees().size());
+        assertEquals(jummah.getVersion(), joined.getVersion()); // Joins don't take the entity's lock version
+        assertEquals(exhaustedBefore, exhausted());
+    }
+
+    private double exhausted() {
+        return meterRegistry.counter("jummah.write.exhausted", "operation", "join").count();
+    }
+}
@@ -0,0 +1,207 @@
+package com.islam.backend.services.jummah.impl;
+
+import com.islam.backend.TestFixtures;
+import com.islam.backend.domain.dto.jummah.request.JummahAttendeeBulkRequest;
+import com.islam.backend.domain.dto.jummah.request.JummahCreateRequest;
+import com.islam.backend.domain.dto.jummah.response.JummahAttendeeBulkResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahDetailResponse;
+import com.islam.backend.domain.entities.AccountEntity;
+import com.islam.backend.domain.entities.JummahEntity;
+import com.islam.backend.enums.AttendeeChangeStatus;
+import com.islam.backend.repositories.JummahRepository;
+import com.islam.backend.services.jummah.JummahChangeLog;
+import com.islam.backend.services.jummah.JummahPublicService;
+import com.islam.backend.services.jummah.JummahService;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class JummahPublicServiceImplQueryCountTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JummahPublicService jummahPublicService;
+
+    @Autowired
+    private JummahService jummahService;
+
+    @Autowired
+    private JummahRepository jummahRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JummahChangeLog jummahChangeLog;
+
+    @Test
+    void detailIsLoadedInOneStatement() {
+        List<AccountEntity> attendees = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            attendees.add(fixtures.account());
+        }
+        JummahEntity jummah = fixtures.jummah(j -> j.attendees(attendees));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        JummahDetailResponse detail = jummahPublicService.findById(jummah.getId());
+
+        assertEquals(jummah.getOrganizer().getId(), detail.getOrganizer().getId());
+        assertEquals(5, detail.getAttendees().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void joinAndLeaveNeverLoadEntities() {
+        AccountEntity organizer = fixtures.account();
+        AccountEntity attendee = fixtures.account();
+        JummahEntity jummah = fixtures.jummah(j -> j
+                .organizer(organizer)
+                .attendees(new ArrayList<>(List.of(fixtures.account(), fixtures.account()))));
+        // Counts rows saved through the collection, as for Jummahs saved before the counter existed
+        jummahService.backfillAttendeeCounts();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertTrue(jummahPublicService.addAttendee(jummah.getId(), attendee.getId()));
+        assertFalse(jummahPublicService.addAttendee(jummah.getId(), attendee.getId()));
+        assertFalse(jummahPublicService.addAttendee(jummah.getId(), organizer.getId()));
+        assertEquals(3, jummahRepository.findLocationById(jummah.getId()).orElseThrow().getAttendeeCount());
+        assertTrue(jummahPublicService.removeAttendee(jummah.getId(), attendee.getId()));
+        assertFalse(jummahPublicService.removeAttendee(jummah.getId(), attendee.getId()));
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        JummahDetailResponse detail = jummahPublicService.findById(jummah.getId());
+        assertEquals(2, detail.getAttendees().size());
+        assertEquals(2, detail.getAttendeeCount());
+    }
+
+    @Test
+    void bulkAttendeeChangesReportEachAccount() {
+        AccountEntity organizer = fixtures.account();
+        AccountEntity attending = fixtures.account();
+        JummahEntity jummah = fixtures.jummah(j -> j.organizer(organizer));
+        jummahPublicService.addAttendee(jummah.getId(), attending.getId());
+
+        List<UUID> newcomers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            newcomers.add(fixtures.account().getId());
+        }
+        UUID unknown = UUID.randomUUID();
+        List<UUID> add = new ArrayList<>(newcomers);
+        add.addAll(List.of(attending.getId(), organizer.getId(), unknown));
+
+        JummahAttendeeBulkResponse added = jummahPublicService.updateAttendees(jummah.getId(), organizer.getId(),
+                JummahAttendeeBulkRequest.builder().add(add).build());
+
+        assertEquals(add, List.copyOf(added.getResults().keySet()));
+        newcomers.forEach(id -> assertEquals(AttendeeChangeStatus.ADDED, added.getResults().get(id)));
+        assertEquals(AttendeeChangeStatus.ALREADY_ATTENDING, added.getResults().get(attending.getId()));
+        assertEquals(AttendeeChangeStatus.ORGANIZER, added.getResults().get(organizer.getId()));
+        assertEquals(AttendeeChangeStatus.ACCOUNT_NOT_FOUND, added.getResults().get(unknown));
+        assertEquals(51, added.getAttendeeCount());
+
+        UUID stranger = fixtures.account().getId();
+        JummahAttendeeBulkResponse removed = jummahPublicService.updateAttendees(jummah.getId(), organizer.getId(),
+                JummahAttendeeBulkRequest.builder().remove(List.of(attending.getId(), stranger)).build());
+
+        assertEquals(AttendeeChangeStatus.REMOVED, removed.getResults().get(attending.getId()));
+        assertEquals(AttendeeChangeStatus.NOT_ATTENDING, removed.getResults().get(stranger));
+        assertEquals(50, removed.getAttendeeCount());
+        assertEquals(50, jummahPublicService.findById(jummah.getId()).getAttendees().size());
+    }
+
+    @Test
+    void joiningEvictsOnlyTheJoinedJummahFromTheCache() {
+        AccountEntity attendee = fixtures.account();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ids.add(fixtures.jummah(j -> j.attendees(new ArrayList<>(List.of(fixtures.account())))).getId());
+        }
+        jummahService.backfillAttendeeCounts();
+        UUID joined = ids.get(0);
+        UUID other = ids.get(1);
+        ids.forEach(jummahPublicService::findById);
+        Cache cache = entityManagerFactory.getCache();
+        assertTrue(cache.contains(JummahEntity.class, joined));
+        assertTrue(cache.contains(JummahEntity.class, other));
+
+        assertTrue(jummahPublicService.addAttendee(joined, attendee.getId()));
+
+        assertFalse(cache.contains(JummahEntity.class, joined));
+        assertTrue(cache.contains(JummahEntity.class, other));
+        JummahDetailResponse detail = jummahPublicService.findById(joined);
+        assertEquals(2, detail.getAttendees().size());
+        assertEquals(2, detail.getAttendeeCount());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertEquals(other, jummahRepository.findById(other).orElseThrow().getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void readsDuringAJoinDoNotLeaveTheOldRowCached() {
+        JummahEntity jummah = fixtures.jummah();
+        UUID attendee = fixtures.account().getId();
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            jummahChangeLog.update(jummah.getId(), () -> {
+                int added = jummahRepository.insertAttendee(jummah.getId(), attendee);
+                jummahRepository.addToAttendeeCount(jummah.getId(), added);
+                // Another request reads, and caches, the last committed row while the join is in flight
+                try {
+                    assertEquals(0, reader.submit(() -> jummahPublicService.findById(jummah.getId()).getAttendeeCount()).get());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return added;
+            }, version -> { });
+        } finally {
+            reader.shutdownNow();
+        }
+
+        assertFalse(entityManagerFactory.getCache().contains(JummahEntity.class, jummah.getId()));
+        JummahDetailResponse detail = jummahPublicService.findById(jummah.getId());
+        assertEquals(1, detail.getAttendeeCount());
+        assertEquals(1, detail.getAttendees().size());
+    }
+
+    @Test
+    void staleCopiesCannotOverwriteUpdatesOrJoins() {
+        JummahEntity jummah = fixtures.jummah();
+        JummahEntity stale = jummahRepository.findById(jummah.getId()).orElseThrow();
+
+        assertTrue(jummahPublicService.addAttendee(jummah.getId(), fixtures.account().getId()));
+        assertTrue(jummahPublicService.updateJummah(jummah.getId(), JummahCreateRequest.builder().notes("Moved inside").build()));
+
+        JummahEntity updated = jummahRepository.findById(jummah.getId()).orElseThrow();
+        assertEquals("Moved inside", updated.getNotes());
+        assertEquals(1, updated.getAttendeeCount());
+        assertEquals(stale.getVersion() + 1, updated.getVersion()); // Only the update bumps it
+
+        stale.setNotes("Overwritten");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> jummahRepository.save(stale));
+        assertEquals("Moved inside", jummahPublicService.findById(jummah.getId()).getNotes());
+    }
+}
@@ -0,0 +1,88 @@
+package com.islam.backend.services.notification;
+
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.enums.Gender;
+import com.islam.backend.repositories.AccountRepository;
+import com.islam.backend.services.account.AccountLocationIndex;
+import com.islam.backend.services.jummah.JummahCreatedEvent;
+import com.islam.backend.utils.GeoMath;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class JummahNearbyNotifierTest {
+
+    private static final double RADIUS_KM = 10;
+
+    private record Account(UUID id, double latitude, double longitude, Gender gender) { }
+
+    private final List<List<UUID>> batches = new ArrayList<>();
+    private final AccountLocationIndex index = new AccountLocationIndex(mock(AccountRepository.class));
+    private final JummahNearbyNotifier notifier = new JummahNearbyNotifier(index,
+            (jummah, accountIds) -> batches.add(List.copyOf(accountIds)), RADIUS_KM, new SimpleMeterRegistry());
+
+    @Test
+    void notifiesExactlyTheMatchingAccountsWithinTheRadius() {
+        Random random = new Random(11);
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            Account account = new Account(UUID.randomUUID(),
+                    43.65 + random.nextGaussian() * 0.2, -79.38 + random.nextGaussian() * 0.2,
+                    random.nextBoolean() ? Gender.MALE : Gender.FEMALE);
+            accounts.add(account);
+            index.put(account.id(), account.latitude(), account.longitude(), account.gender());
+        }
+
+        for (int q = 0; q < 50; q++) {
+            Account organizer = accounts.get(random.nextInt(accounts.size()));
+            Gender target = q % 2 == 0 ? Gender.MALE : Gender.FEMALE;
+            JummahCreatedEvent event = new JummahCreatedEvent(JummahMapResponse.builder()
+                    .id(UUID.randomUUID())
+                    .latitude(organizer.latitude())
+                    .longitude(organizer.longitude())
+                    .build(), organizer.id(), target);
+
+            Set<UUID> expected = new HashSet<>();
+            for (Account account : accounts) {
+                if (account.gender() == target && !account.id().equals(organizer.id())
+                        && GeoMath.haversineDistance(organizer.latitude(), organizer.longitude(),
+                        account.latitude(), account.longitude()) <= RADIUS_KM) {
+                    expected.add(account.id());
+                }
+            }
+
+            batches.clear();
+            int notified = notifier.notifyNearby(event);
+
+            Set<UUID> actual = new HashSet<>();
+            batches.forEach(actual::addAll);
+            assertEquals(expected.size(), notified);
+            assertEquals(expected, actual);
+            assertTrue(batches.stream().allMatch(batch -> batch.size() <= 1000));
+        }
+    }
+
+    @Test
+    void movedAccountIsNoLongerNotifiedAtItsOldLocation() {
+        UUID accountId = UUID.randomUUID();
+        index.put(accountId, 43.65, -79.38, Gender.MALE);
+        index.put(accountId, 45.50, -73.57, Gender.MALE);
+
+        JummahCreatedEvent event = new JummahCreatedEvent(JummahMapResponse.builder()
+                .id(UUID.randomUUID()).latitude(43.65).longitude(-79.38).build(), null, Gender.MALE);
+
+        assertEquals(0, notifier.notifyNearby(event));
+        assertFalse(batches.stream().anyMatch(batch -> batch.contains(accountId)));
+    }
+}
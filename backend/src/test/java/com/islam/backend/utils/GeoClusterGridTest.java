@@ -0,0 +1,138 @@
+package com.islam.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoClusterGridTest {
+
+    private static final int MAX_ZOOM = 12;
+    private static final BoundingBox WORLD = new BoundingBox(-90, -180, 90, 180);
+
+    private record Point(UUID id, double latitude, double longitude) { }
+
+    @Test
+    void incrementalChangesMatchARebuild() {
+        Random random = new Random(7);
+        GeoClusterGrid grid = new GeoClusterGrid(MAX_ZOOM);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Two dense areas, so deep levels hold both crowded and single-point cells
+            double[] center = i % 2 == 0 ? new double[]{43.65, -79.38} : new double[]{21.42, 39.82};
+            Point point = new Point(UUID.randomUUID(),
+                    center[0] + random.nextGaussian() * 0.5, center[1] + random.nextGaussian() * 0.5);
+            points.add(point);
+            grid.add(point.id(), point.latitude(), point.longitude());
+        }
+        List<Point> kept = new ArrayList<>();
+        for (Point point : points) {
+            if (random.nextBoolean()) {
+                grid.remove(point.id(), point.latitude(), point.longitude());
+            } else {
+                kept.add(point);
+            }
+        }
+
+        GeoClusterGrid rebuilt = new GeoClusterGrid(MAX_ZOOM);
+        kept.forEach(point -> rebuilt.add(point.id(), point.latitude(), point.longitude()));
+
+        BoundingBox toronto = new BoundingBox(43, -80.5, 44.5, -78);
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            assertSameClusters(rebuilt.findWithinBoundingBox(WORLD, zoom), grid.findWithinBoundingBox(WORLD, zoom));
+            assertSameClusters(rebuilt.findWithinBoundingBox(toronto, zoom), grid.findWithinBoundingBox(toronto, zoom));
+            assertEquals(kept.size(), total(grid.findWithinBoundingBox(WORLD, zoom)));
+        }
+    }
+
+    @Test
+    void singlePointClustersRecoverTheirIdFromTheXor() {
+        GeoClusterGrid grid = new GeoClusterGrid(MAX_ZOOM);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        grid.add(first, 43.6500, -79.3800);
+        grid.add(second, 43.6501, -79.3801);
+        grid.add(third, 43.6502, -79.3802);
+
+        GeoClusterGrid.Cluster crowded = grid.findWithinBoundingBox(WORLD, MAX_ZOOM).get(0);
+        assertEquals(3, crowded.count());
+        assertNull(crowded.singleId());
+
+        grid.remove(first, 43.6500, -79.3800);
+        grid.remove(third, 43.6502, -79.3802);
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+            List<GeoClusterGrid.Cluster> clusters = grid.findWithinBoundingBox(WORLD, zoom);
+            assertEquals(1, clusters.size());
+            assertEquals(1, clusters.get(0).count());
+            assertEquals(second, clusters.get(0).singleId());
+            assertEquals(43.6501, clusters.get(0).latitude(), 1e-9);
+            assertEquals(-79.3801, clusters.get(0).longitude(), 1e-9);
+        }
+
+        grid.remove(second, 43.6501, -79.3801);
+        assertTrue(grid.findWithinBoundingBox(WORLD, MAX_ZOOM).isEmpty());
+    }
+
+    @Test
+    void gridsHoldingDisjointPointsMergeLikeOneGrid() {
+        Random random = new Random(11);
+        GeoClusterGrid combined = new GeoClusterGrid(MAX_ZOOM);
+        List<GeoClusterGrid> parts = List.of(new GeoClusterGrid(MAX_ZOOM), new GeoClusterGrid(MAX_ZOOM), new GeoClusterGrid(MAX_ZOOM));
+        for (int i = 0; i < 3_000; i++) {
+            UUID id = UUID.randomUUID();
+            double latitude = 51.5 + random.nextGaussian() * 0.3;
+            double longitude = -0.12 + random.nextGaussian() * 0.3;
+            combined.add(id, latitude, longitude);
+            parts.get(i % parts.size()).add(id, latitude, longitude);
+        }
+
+        BoundingBox london = new BoundingBox(51, -1, 52, 1);
+        for (int zoom = 0; zoom <= MAX_ZOOM; zoom += 3) {
+            assertSameClusters(combined.findWithinBoundingBox(london, zoom),
+                    GeoClusterGrid.findWithinBoundingBox(parts, london, zoom));
+        }
+    }
+
+    @Test
+    void oversizedViewportsFallBackToCoarserLevels() {
+        GeoClusterGrid grid = new GeoClusterGrid(MAX_ZOOM);
+        BoundingBox city = new BoundingBox(43.5, -79.6, 43.8, -79.2);
+
+        assertEquals(MAX_ZOOM, grid.levelFor(city, MAX_ZOOM + 5, Long.MAX_VALUE));
+        int level = grid.levelFor(WORLD, MAX_ZOOM, 1_000);
+        assertTrue(level < MAX_ZOOM);
+        // 4x4 cells per tile: level z covers the world with 2^(z+2) by 2^(z+1) cells
+        assertTrue(Math.pow(2, level + 2) * Math.pow(2, level + 1) <= 1_000);
+        assertTrue(Math.pow(2, level + 3) * Math.pow(2, level + 2) > 1_000);
+    }
+
+    private static int total(List<GeoClusterGrid.Cluster> clusters) {
+        return clusters.stream().mapToInt(GeoClusterGrid.Cluster::count).sum();
+    }
+
+    private static void assertSameClusters(List<GeoClusterGrid.Cluster> expected, List<GeoClusterGrid.Cluster> actual) {
+        Comparator<GeoClusterGrid.Cluster> byCentroid = Comparator
+                .comparingDouble(GeoClusterGrid.Cluster::latitude)
+                .thenComparingDouble(GeoClusterGrid.Cluster::longitude);
+        List<GeoClusterGrid.Cluster> sortedExpected = expected.stream().sorted(byCentroid).toList();
+        List<GeoClusterGrid.Cluster> sortedActual = actual.stream().sorted(byCentroid).toList();
+
+        assertEquals(sortedExpected.size(), sortedActual.size());
+        for (int i = 0; i < sortedExpected.size(); i++) {
+            GeoClusterGrid.Cluster want = sortedExpected.get(i);
+            GeoClusterGrid.Cluster got = sortedActual.get(i);
+            assertEquals(want.count(), got.count());
+            assertEquals(want.singleId(), got.singleId());
+            assertEquals(want.latitude(), got.latitude(), 1e-6);
+            assertEquals(want.longitude(), got.longitude(), 1e-6);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.islam.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoGridIndexTest {
+
+    private static final int POINT_COUNT = 120_000;
+    private static final int QUERY_COUNT = 300;
+
+    private record Point(UUID id, double latitude, double longitude) { }
+
+    // Dense "cities", including ones next to the antimeridian and close to a pole
+    private static final double[][] CITIES = {{43.65, -79.38}, {51.5, -0.12}, {-17.7, 179.9}, {64.1, -179.95}, {89.5, 10.0}};
+
+    @Test
+    void radiusQueriesMatchBruteForceScan() {
+        Random random = new Random(42);
+        GeoGridIndex<UUID> index = new GeoGridIndex<>(0.1);
+        List<Point> points = generatePoints(random, index);
+
+        for (int q = 0; q < QUERY_COUNT; q++) {
+            double latitude;
+            double longitude;
+            if (q % 3 == 0) {
+                double[] city = CITIES[q % CITIES.length];
+                latitude = clamp(city[0] + random.nextGaussian() * 0.2, -90, 90);
+                longitude = wrap(city[1] + random.nextGaussian() * 0.2);
+            } else {
+                Point near = points.get(random.nextInt(points.size()));
+                latitude = near.latitude();
+                longitude = near.longitude();
+            }
+            double radiusKm = 1 + random.nextInt(100);
+
+            Set<UUID> expected = new HashSet<>();
+            for (Point point : points) {
+                if (GeoMath.haversineDistance(latitude, longitude, point.latitude(), point.longitude()) <= radiusKm) {
+                    expected.add(point.id());
+                }
+            }
+            List<UUID> actual = index.findWithinRadius(latitude, longitude, radiusKm);
+
+            assertEquals(expected.size(), actual.size(),
+                    "Result size mismatch at " + latitude + "," + longitude + " r=" + radiusKm);
+            assertEquals(expected, new HashSet<>(actual));
+        }
+    }
+
+    @Test
+    void nearestQueriesMatchBruteForceScan() {
+        Random random = new Random(7);
+        GeoGridIndex<UUID> index = new GeoGridIndex<>(0.1);
+        List<Point> points = generatePoints(random, index);
+
+        for (int q = 0; q < QUERY_COUNT; q++) {
+            double latitude;
+            double longitude;
+            if (q % 3 == 0) {
+                double[] city = CITIES[q % CITIES.length];
+                latitude = clamp(city[0] + random.nextGaussian() * 2, -90, 90);
+                longitude = wrap(city[1] + random.nextGaussian() * 2);
+            } else {
+                latitude = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+                longitude = random.nextDouble() * 360 - 180;
+            }
+            int k = 1 + random.nextInt(50);
+            double maxDistanceKm = q % 2 == 0 ? 20_000 : 100;
+
+            List<Double> expected = points.stream()
+                    .mapToDouble(point -> GeoMath.haversineDistance(latitude, longitude, point.latitude(), point.longitude()))
+                    .filter(distance -> distance <= maxDistanceKm)
+                    .sorted()
+                    .limit(k)
+                    .boxed()
+                    .toList();
+            List<Double> actual = index.findNearest(latitude, longitude, k, maxDistanceKm).stream()
+                    .map(GeoGridIndex.Neighbor::distanceKm)
+                    .toList();
+
+            assertEquals(expected, actual, "Nearest mismatch at " + latitude + "," + longitude + " k=" + k);
+        }
+    }
+
+    @Test
+    void snapshotQueriesMatchPlainQueries() {
+        Random random = new Random(5);
+        GeoGridIndex<UUID> index = new GeoGridIndex<>(0.1);
+        List<Point> points = generatePoints(random, index);
+        Function<List<UUID>, List<UUID>> snapshotter = List::copyOf;
+
+        for (int q = 0; q < QUERY_COUNT; q++) {
+            Point near = points.get(random.nextInt(points.size()));
+            double radiusKm = 1 + random.nextInt(100);
+
+            Set<UUID> actual = new HashSet<>();
+            index.findWithinRadius(near.latitude(), near.longitude(), radiusKm, snapshotter, actual::addAll, actual::add);
+            assertEquals(new HashSet<>(index.findWithinRadius(near.latitude(), near.longitude(), radiusKm)), actual);
+
+            BoundingBox box = GeoMath.boundingBox(near.latitude(), near.longitude(), radiusKm);
+            Set<UUID> inBox = new HashSet<>();
+            index.findWithinBoundingBox(box, snapshotter, inBox::addAll, inBox::add);
+            assertEquals(new HashSet<>(index.findWithinBoundingBox(box)), inBox);
+        }
+    }
+
+    @Test
+    void cachedSnapshotIsReplacedOnWrite() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(0.1);
+        Function<List<String>, List<String>> snapshotter = List::copyOf;
+        index.put(UUID.randomUUID(), 43.651, -79.381, "a");
+
+        List<List<String>> first = new ArrayList<>();
+        index.findWithinRadius(43.651, -79.381, 50, snapshotter, first::add, value -> { });
+        assertEquals(List.of(List.of("a")), first);
+
+        index.put(UUID.randomUUID(), 43.652, -79.382, "b");
+        List<List<String>> second = new ArrayList<>();
+        index.findWithinRadius(43.651, -79.381, 50, snapshotter, second::add, value -> { });
+        assertEquals(1, second.size());
+        assertEquals(Set.of("a", "b"), new HashSet<>(second.get(0)));
+    }
+
+    @Test
+    void moveAndRemoveKeepCellsInSync() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(0.1);
+        UUID id = UUID.randomUUID();
+
+        index.put(id, 43.65, -79.38, "toronto");
+        assertEquals(List.of("toronto"), index.findWithinRadius(43.65, -79.38, 1));
+
+        index.put(id, 45.50, -73.57, "montreal");
+        assertTrue(index.findWithinRadius(43.65, -79.38, 1).isEmpty());
+        assertEquals(List.of("montreal"), index.findWithinRadius(45.50, -73.57, 1));
+        assertEquals(1, index.size());
+
+        assertTrue(index.remove(id));
+        assertFalse(index.remove(id));
+        assertTrue(index.findWithinRadius(45.50, -73.57, 1).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    private static List<Point> generatePoints(Random random, GeoGridIndex<UUID> index) {
+        List<Point> points = new ArrayList<>(POINT_COUNT);
+
+        // Half the points are spread over the globe, half are packed around the cities
+        for (int i = 0; i < POINT_COUNT; i++) {
+            double latitude;
+            double longitude;
+            if (i % 2 == 0) {
+                latitude = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+                longitude = random.nextDouble() * 360 - 180;
+            } else {
+                double[] city = CITIES[random.nextInt(CITIES.length)];
+                latitude = clamp(city[0] + random.nextGaussian() * 0.3, -90, 90);
+                longitude = wrap(city[1] + random.nextGaussian() * 0.3);
+            }
+            Point point = new Point(UUID.randomUUID(), latitude, longitude);
+            points.add(point);
+            index.put(point.id(), point.latitude(), point.longitude(), point.id());
+        }
+        return points;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static double wrap(double longitude) {
+        return ((longitude + 540) % 360) - 180;
+    }
+}
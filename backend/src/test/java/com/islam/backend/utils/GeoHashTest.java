@@ -0,0 +1,126 @@
+package com.islam.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoHashTest {
+
+    private static final int POINT_COUNT = 50_000;
+    private static final int QUERY_COUNT = 500;
+
+    // The number of prefix ranges the Jummah queries allow per bounding box
+    private static final int MAX_RANGES = 8;
+
+    private record Point(int id, double latitude, double longitude, String geohash) { }
+
+    @Test
+    void knownPointsEncodeToKnownHashes() {
+        assertEquals("ezs42", GeoHash.encode(42.6, -5.6, 5));
+        assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11));
+    }
+
+    @Test
+    void everyPointLiesInTheCellOfItsHash() {
+        Random random = new Random(3);
+        for (int i = 0; i < 10_000; i++) {
+            double latitude = random.nextDouble() * 180 - 90;
+            double longitude = random.nextDouble() * 360 - 180;
+            for (int precision = 1; precision <= GeoHash.MAX_PRECISION; precision++) {
+                String hash = GeoHash.encode(latitude, longitude, precision);
+                assertTrue(GeoHash.bounds(hash).contains(latitude, longitude), hash + " does not contain " + latitude + "," + longitude);
+                assertTrue(GeoHash.encode(latitude, longitude, GeoHash.MAX_PRECISION).startsWith(hash));
+            }
+        }
+    }
+
+    @Test
+    void upperBoundSelectsExactlyThePrefix() {
+        Random random = new Random(5);
+        List<String> hashes = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            hashes.add(GeoHash.encode(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180, GeoHash.MAX_PRECISION));
+        }
+        hashes.add("zzzzzzzzzzzz");
+        hashes.add("000000000000");
+
+        for (String prefix : List.of("0", "z", "dp", "dpz", "zz", "u4pz", "9zzzz", "b")) {
+            String upper = GeoHash.upperBound(prefix);
+            for (String hash : hashes) {
+                boolean inRange = hash.compareTo(prefix) >= 0 && hash.compareTo(upper) < 0;
+                assertEquals(hash.startsWith(prefix), inRange, prefix + " range misjudges " + hash);
+            }
+        }
+    }
+
+    @Test
+    void prefixRangeLookupsMatchBruteForceScan() {
+        Random random = new Random(42);
+        // Sorted by geohash, standing in for the B-tree index on the geohash column
+        TreeMap<String, List<Point>> byGeohash = new TreeMap<>();
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < POINT_COUNT; i++) {
+            double latitude = random.nextDouble() * 180 - 90;
+            double longitude = random.nextDouble() * 360 - 180;
+            Point point = new Point(i, latitude, longitude, GeoHash.encode(latitude, longitude, GeoHash.MAX_PRECISION));
+            points.add(point);
+            byGeohash.computeIfAbsent(point.geohash(), key -> new ArrayList<>()).add(point);
+        }
+
+        for (int q = 0; q < QUERY_COUNT; q++) {
+            BoundingBox box = randomBox(random, q);
+
+            Set<Integer> expected = new HashSet<>();
+            for (Point point : points) {
+                if (box.contains(point.latitude(), point.longitude())) {
+                    expected.add(point.id());
+                }
+            }
+
+            List<Integer> actual = new ArrayList<>();
+            List<String> prefixes = GeoHash.cover(box, MAX_RANGES);
+            assertTrue(prefixes.size() <= MAX_RANGES || prefixes.stream().allMatch(prefix -> prefix.length() == 1),
+                    "Too many ranges for " + box);
+            for (String prefix : prefixes) {
+                BoundingBox range = box.clip(GeoHash.bounds(prefix));
+                byGeohash.subMap(prefix, true, GeoHash.upperBound(prefix), false).values().stream()
+                        .flatMap(List::stream)
+                        .filter(point -> point.latitude() >= range.minLatitude() && point.latitude() <= range.maxLatitude()
+                                && point.longitude() >= range.minLongitude() && point.longitude() <= range.maxLongitude())
+                        // As the Jummah queries do, for coarse cells reaching across the gap of the box
+                        .filter(point -> box.contains(point.latitude(), point.longitude()))
+                        .forEach(point -> actual.add(point.id()));
+            }
+
+            assertEquals(expected.size(), actual.size(), "Missing or duplicated points in " + box);
+            assertEquals(expected, new HashSet<>(actual));
+        }
+    }
+
+    // Mostly small boxes, with some wide ones and some crossing the antimeridian or touching a pole
+    private static BoundingBox randomBox(Random random, int q) {
+        if (q % 50 == 0) {
+            // Nearly the whole world, leaving a narrow gap inside a single coarse cell
+            double gapStart = random.nextDouble() * 340 - 170;
+            return new BoundingBox(-90, gapStart + 5, 90, gapStart);
+        }
+        double height = q % 5 == 0 ? random.nextDouble() * 60 : random.nextDouble() * 2;
+        double width = q % 5 == 0 ? random.nextDouble() * 120 : random.nextDouble() * 3;
+        double minLatitude = Math.max(-90, random.nextDouble() * 180 - 90 - height / 2);
+        double maxLatitude = Math.min(90, minLatitude + height);
+        double minLongitude = q % 7 == 0 ? 180 - width / 2 : random.nextDouble() * 360 - 180;
+        double maxLongitude = minLongitude + width;
+        if (maxLongitude > 180) {
+            maxLongitude -= 360;
+        }
+        return new BoundingBox(minLatitude, minLongitude, maxLatitude, maxLongitude);
+    }
+}
@@ -0,0 +1,105 @@
+package com.islam.backend.utils;
+
+import com.islam.backend.domain.entities.value.Geolocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the batch distance kernels of {@link GeoMath} with the per-entity stream filter
+ * the nearby search used before.
+ *
+ * Not part of the test suite; after {@code mvn test-compile} run {@link #main} from the IDE, or
+ * {@code org.openjdk.jmh.Main GeoMathBenchmark} with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoMathBenchmark {
+
+    private static final double LATITUDE = 43.65;
+    private static final double LONGITUDE = -79.38;
+    private static final double RADIUS_KM = 10;
+
+    @Param({"1000", "100000"})
+    private int count;
+
+    private List<Geolocation> geolocations;
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] distances;
+    private long[] matches;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        geolocations = new ArrayList<>(count);
+        latitudes = new double[count];
+        longitudes = new double[count];
+        distances = new double[count];
+        matches = new long[(count + 63) >>> 6];
+
+        // A metro area a few times wider than the search radius
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = LATITUDE + random.nextGaussian() * 0.5;
+            longitudes[i] = LONGITUDE + random.nextGaussian() * 0.5;
+            geolocations.add(new Geolocation(latitudes[i], longitudes[i]));
+        }
+    }
+
+    @Benchmark
+    public long streamFilter() {
+        return geolocations.stream()
+                .filter(geolocation -> GeoMath.haversineDistance(LATITUDE, LONGITUDE,
+                        geolocation.getLatitude(), geolocation.getLongitude()) <= RADIUS_KM)
+                .count();
+    }
+
+    @Benchmark
+    public int batchWithinRadius() {
+        return GeoMath.withinRadius(LATITUDE, LONGITUDE, RADIUS_KM, latitudes, longitudes, count, matches);
+    }
+
+    @Benchmark
+    public int batchWithinRadiusEquirectangular() {
+        return GeoMath.withinRadius(LATITUDE, LONGITUDE, RADIUS_KM, DistanceMode.EQUIRECTANGULAR,
+                latitudes, longitudes, count, matches);
+    }
+
+    @Benchmark
+    public int batchWithinRadiusSquaredChord() {
+        return GeoMath.withinRadius(LATITUDE, LONGITUDE, RADIUS_KM, DistanceMode.SQUARED_CHORD,
+                latitudes, longitudes, count, matches);
+    }
+
+    @Benchmark
+    public double[] batchDistances() {
+        GeoMath.haversineDistances(LATITUDE, LONGITUDE, latitudes, longitudes, count, distances);
+        return distances;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GeoMathBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,69 @@
+package com.islam.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GeoMathTest {
+
+    private static final int POINT_COUNT = 5_000;
+    private static final int QUERY_COUNT = 400;
+
+    @Test
+    void everyDistanceModeMatchesHaversine() {
+        Random random = new Random(11);
+        double[] latitudes = new double[POINT_COUNT];
+        double[] longitudes = new double[POINT_COUNT];
+        long[] matches = new long[(POINT_COUNT + 63) >>> 6];
+
+        for (int q = 0; q < QUERY_COUNT; q++) {
+            // Query latitudes up to the poles, including next to the antimeridian
+            double latitude = random.nextDouble() * 178 - 89;
+            double longitude = q % 4 == 0 ? 179.99 : random.nextDouble() * 360 - 180;
+            double radiusKm = q % 5 == 0 ? 100 + random.nextDouble() * 400 : 1 + random.nextDouble() * 49;
+
+            // Points concentrated around the circle edge, where approximations would go wrong
+            double spread = Math.toDegrees(radiusKm / GeoMath.EARTH_RADIUS_KM) * 1.5;
+            for (int i = 0; i < POINT_COUNT; i++) {
+                latitudes[i] = Math.max(-90, Math.min(90, latitude + (random.nextDouble() * 2 - 1) * spread));
+                double lonSpread = spread / Math.max(0.05, Math.cos(Math.toRadians(latitude)));
+                longitudes[i] = ((longitude + (random.nextDouble() * 2 - 1) * lonSpread + 540) % 360) - 180;
+            }
+
+            long[] expected = new long[matches.length];
+            int expectedCount = 0;
+            for (int i = 0; i < POINT_COUNT; i++) {
+                if (GeoMath.haversineDistance(latitude, longitude, latitudes[i], longitudes[i]) <= radiusKm) {
+                    expected[i >>> 6] |= 1L << i;
+                    expectedCount++;
+                }
+            }
+
+            for (DistanceMode mode : DistanceMode.values()) {
+                int found = GeoMath.withinRadius(latitude, longitude, radiusKm, mode, latitudes, longitudes, POINT_COUNT, matches);
+                assertEquals(expectedCount, found, mode + " at " + latitude + "," + longitude + " r=" + radiusKm);
+                assertArrayEquals(expected, matches, mode + " at " + latitude + "," + longitude + " r=" + radiusKm);
+            }
+        }
+    }
+
+    @Test
+    void batchDistancesMatchScalarDistances() {
+        Random random = new Random(3);
+        double[] latitudes = new double[POINT_COUNT];
+        double[] longitudes = new double[POINT_COUNT];
+        double[] distances = new double[POINT_COUNT];
+        for (int i = 0; i < POINT_COUNT; i++) {
+            latitudes[i] = random.nextDouble() * 180 - 90;
+            longitudes[i] = random.nextDouble() * 360 - 180;
+        }
+
+        GeoMath.haversineDistances(21.42, 39.83, latitudes, longitudes, POINT_COUNT, distances);
+        for (int i = 0; i < POINT_COUNT; i++) {
+            assertEquals(GeoMath.haversineDistance(21.42, 39.83, latitudes[i], longitudes[i]), distances[i]);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.islam.backend.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares primary key strategies for inserting rows into a B-tree primary key index:
+ * random UUIDs, time-ordered {@link UuidV7Generator} UUIDs and a pooled sequence, all written
+ * in JDBC batches as Hibernate does with {@code hibernate.jdbc.batch_size}.
+ * Each iteration fills a fresh file-backed H2 table and prints the space it takes afterwards.
+ *
+ * Not part of the test suite; after {@code mvn test-compile} run {@link #main} from the IDE, or
+ * {@code org.openjdk.jmh.Main KeyInsertBenchmark} with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class KeyInsertBenchmark {
+
+    private static final int ROWS = 200_000;
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"RANDOM_UUID", "UUID_V7", "POOLED_SEQUENCE"})
+    private String keyType;
+
+    private Path directory;
+    private Connection connection;
+
+    @Setup(Level.Iteration)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("key-insert-benchmark");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("db"), "sa", "");
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            String idType = keyType.equals("POOLED_SEQUENCE") ? "BIGINT" : "UUID";
+            statement.execute("CREATE TABLE rows_by_key (id " + idType + " PRIMARY KEY, payload VARCHAR(64))");
+            statement.execute("CREATE SEQUENCE rows_seq START WITH 1 INCREMENT BY " + BATCH_SIZE);
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet size = statement.executeQuery("SELECT DISK_SPACE_USED('ROWS_BY_KEY')")) {
+            size.next();
+            System.out.printf("%n%s: %d KiB on disk%n", keyType, size.getLong(1) / 1024);
+        }
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int insert() throws SQLException {
+        int inserted = 0;
+        long nextSequenceValue = 0;
+        long sequenceLimit = 0;
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO rows_by_key (id, payload) VALUES (?, ?)");
+             PreparedStatement sequence = connection.prepareStatement("SELECT NEXT VALUE FOR rows_seq")) {
+            for (int i = 0; i < ROWS; i++) {
+                switch (keyType) {
+                    case "RANDOM_UUID" -> insert.setObject(1, UUID.randomUUID());
+                    case "UUID_V7" -> insert.setObject(1, UuidV7Generator.next());
+                    default -> {
+                        // One sequence round trip per block of ids, like Hibernate's pooled optimizer
+                        if (nextSequenceValue == sequenceLimit) {
+                            try (ResultSet value = sequence.executeQuery()) {
+                                value.next();
+                                nextSequenceValue = value.getLong(1);
+                                sequenceLimit = nextSequenceValue + BATCH_SIZE;
+                            }
+                        }
+                        insert.setLong(1, nextSequenceValue++);
+                    }
+                }
+                insert.setString(2, "message " + i);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    for (int count : insert.executeBatch()) {
+                        inserted += count;
+                    }
+                    connection.commit();
+                }
+            }
+        }
+        return inserted;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(KeyInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,52 @@
+package com.islam.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeWindowTest {
+
+    private static final LocalDate FRIDAY = LocalDate.of(2026, 10, 16);
+
+    @Test
+    void fromIsInclusiveAndToIsExclusive() {
+        TimeWindow window = new TimeWindow(FRIDAY.atTime(12, 0), FRIDAY.atTime(14, 0));
+
+        assertFalse(window.contains(FRIDAY, LocalTime.of(11, 59)));
+        assertTrue(window.contains(FRIDAY, LocalTime.NOON));
+        assertTrue(window.contains(FRIDAY, LocalTime.of(13, 59)));
+        assertFalse(window.contains(FRIDAY, LocalTime.of(14, 0)));
+        assertFalse(window.contains(FRIDAY.plusDays(1), LocalTime.NOON));
+    }
+
+    @Test
+    void openEndedWindowsReachTheFarFuture() {
+        TimeWindow window = new TimeWindow(FRIDAY.atStartOfDay(), null);
+
+        assertTrue(window.contains(FRIDAY, LocalTime.MIDNIGHT));
+        assertTrue(window.contains(LocalDate.of(9999, 12, 31), LocalTime.NOON));
+        assertFalse(window.contains(FRIDAY.minusDays(1), LocalTime.MAX));
+        assertTrue(window.end().isAfter(LocalDateTime.of(9999, 1, 1, 0, 0)));
+    }
+
+    @Test
+    void boundedWindowsEndAtTheirEnd() {
+        LocalDateTime to = FRIDAY.atTime(14, 0);
+        assertEquals(to, new TimeWindow(FRIDAY.atStartOfDay(), to).end());
+    }
+
+    @Test
+    void upcomingStartsAtTheBeginningOfToday() {
+        TimeWindow upcoming = TimeWindow.upcoming();
+
+        assertEquals(LocalDate.now().atStartOfDay(), upcoming.from());
+        assertNull(upcoming.to());
+    }
+}
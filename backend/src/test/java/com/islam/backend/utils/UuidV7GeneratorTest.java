@@ -0,0 +1,29 @@
+package com.islam.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void idsAreVersion7AndStrictlyIncreasing() {
+        long before = System.currentTimeMillis();
+        UUID previous = UuidV7Generator.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = UuidV7Generator.next();
+            assertEquals(7, next.version());
+            assertEquals(2, next.variant());
+            // Unsigned comparison, as a database orders uuid columns
+            assertTrue(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0,
+                    previous + " then " + next);
+            previous = next;
+        }
+
+        long millis = previous.getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis <= System.currentTimeMillis() + 100);
+    }
+}
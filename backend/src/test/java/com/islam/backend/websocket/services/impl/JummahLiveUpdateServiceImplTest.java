@@ -0,0 +1,76 @@
+package com.islam.backend.websocket.services.impl;
+
+import com.islam.backend.domain.dto.jummah.response.JummahLiveEventResponse;
+import com.islam.backend.domain.dto.jummah.response.JummahMapResponse;
+import com.islam.backend.enums.JummahEventType;
+import com.islam.backend.utils.BoundingBox;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class JummahLiveUpdateServiceImplTest {
+
+    private final SimpMessageSendingOperations messagingTemplate = mock(SimpMessageSendingOperations.class);
+    private final JummahLiveUpdateServiceImpl service = new JummahLiveUpdateServiceImpl(messagingTemplate);
+
+    @Test
+    void everyChangeInsideAViewportReachesOneOfItsTopics() {
+        Random random = new Random(3);
+        for (int q = 0; q < 200; q++) {
+            double latitude = random.nextDouble() * 160 - 80;
+            double longitude = random.nextDouble() * 360 - 180;
+            double height = Math.pow(10, random.nextDouble() * 3 - 2);
+            double width = Math.pow(10, random.nextDouble() * 3.5 - 2);
+            double maxLongitude = longitude + width > 180 ? longitude + width - 360 : longitude + width;
+            BoundingBox viewport = new BoundingBox(latitude, longitude, Math.min(90, latitude + height), maxLongitude);
+            Set<String> subscribed = new HashSet<>(service.topicsFor(viewport));
+            assertTrue(subscribed.size() <= 32, "Too many topics for " + viewport);
+
+            double pointLatitude = latitude + random.nextDouble() * (viewport.maxLatitude() - latitude);
+            double pointLongitude = longitude + random.nextDouble() * width;
+            JummahMapResponse location = JummahMapResponse.builder()
+                    .id(UUID.randomUUID())
+                    .latitude(pointLatitude)
+                    .longitude(pointLongitude > 180 ? pointLongitude - 360 : pointLongitude)
+                    .build();
+
+            clearInvocations(messagingTemplate);
+            service.publishUpsert(location, q, null);
+            ArgumentCaptor<String> topics = ArgumentCaptor.forClass(String.class);
+            verify(messagingTemplate, atLeastOnce()).convertAndSend(topics.capture(), any(Object.class));
+            assertFalse(topics.getAllValues().stream().noneMatch(subscribed::contains),
+                    "No subscribed topic received " + location + " in " + viewport);
+        }
+    }
+
+    @Test
+    void movedJummahIsAnnouncedInBothCells() {
+        JummahMapResponse before = JummahMapResponse.builder().id(UUID.randomUUID()).latitude(43.65).longitude(-79.38).build();
+        JummahMapResponse after = JummahMapResponse.builder().id(before.getId()).latitude(45.50).longitude(-73.57).build();
+
+        service.publishUpsert(after, 7, before);
+        ArgumentCaptor<String> topics = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, atLeastOnce()).convertAndSend(topics.capture(), events.capture());
+
+        assertTrue(topics.getAllValues().contains("/topic/jummahs/cells/dpz83"));
+        assertTrue(topics.getAllValues().contains("/topic/jummahs/cells/f25dv"));
+        assertEquals(List.of(JummahEventType.UPSERTED), events.getAllValues().stream()
+                .map(event -> ((JummahLiveEventResponse) event).getType()).distinct().toList());
+    }
+}